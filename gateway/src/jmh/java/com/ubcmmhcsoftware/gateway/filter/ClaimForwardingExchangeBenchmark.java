@@ -0,0 +1,79 @@
+package com.ubcmmhcsoftware.gateway.filter;
+
+import com.ubcmmhcsoftware.gateway.jwt.ForwardedClaims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adding the claim headers with the overlay against request.mutate() as the filter did
+ * before, on a browser-sized request. Each op forwards once and walks the resulting headers
+ * the way the routing filter copies them to the proxied request. Run with -prof gc to see
+ * the per-request allocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClaimForwardingExchangeBenchmark {
+
+    private ServerWebExchange exchange;
+    private ForwardedClaims claims;
+
+    @Setup
+    public void setUp() {
+        exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/user/me")
+                .header(HttpHeaders.HOST, "api.example.org")
+                .header(HttpHeaders.ACCEPT, "application/json")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate, br")
+                .header(HttpHeaders.ACCEPT_LANGUAGE, "en-CA,en;q=0.9")
+                .header(HttpHeaders.USER_AGENT, "Mozilla/5.0 (X11; Linux x86_64) AppleWebKit/537.36")
+                .header(HttpHeaders.COOKIE, "JWT=eyJhbGciOiJFUzI1NiJ9.e30.sig; REFRESH=opaque")
+                .header(HttpHeaders.ORIGIN, "https://example.org")
+                .header(HttpHeaders.REFERER, "https://example.org/profile")
+                .header("X-Forwarded-For", "203.0.113.7"));
+        Instant now = Instant.now();
+        claims = new ForwardedClaims("4f1c2a9e-7d0b-4c55-9a51-0d6c2f7e8b13", "member@example.org",
+                "ROLE_USER,ROLE_BLOG_EDITOR", "jti", now, now.plusSeconds(900));
+    }
+
+    @Benchmark
+    public void overlay(Blackhole blackhole) {
+        copyHeaders(new ClaimForwardingExchange(exchange, claims), blackhole);
+    }
+
+    @Benchmark
+    public void mutate(Blackhole blackhole) {
+        ServerHttpRequest request = exchange.getRequest().mutate()
+                .header(ForwardedClaims.X_USER_ID, claims.userId())
+                .header(ForwardedClaims.X_USER_EMAIL, claims.email())
+                .header(ForwardedClaims.X_USER_ROLES, claims.roles())
+                .build();
+        copyHeaders(exchange.mutate().request(request).build(), blackhole);
+    }
+
+    private static void copyHeaders(ServerWebExchange forwarded, Blackhole blackhole) {
+        forwarded.getRequest().getHeaders().forEach((name, values) -> {
+            blackhole.consume(name);
+            blackhole.consume(values);
+        });
+    }
+}
@@ -0,0 +1,83 @@
+package com.ubcmmhcsoftware.gateway.filter;
+
+import com.ubcmmhcsoftware.gateway.config.PathPolicyProperties;
+import com.ubcmmhcsoftware.gateway.filter.PathClassifier.PathAccess;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * The trie against the lambda lists it replaced, with application.yml's route table. The
+ * paths cover an early public hit, a protected hit (all public matchers miss first) and OTHER.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathClassifierBenchmark {
+
+    private static final List<Predicate<String>> PUBLIC_PATHS = List.of(
+            path -> path.startsWith("/api/auth/"),
+            path -> path.equals("/api/newsletter/add-email"),
+            path -> path.equals("/api/membership/register"),
+            path -> path.equals("/api/membership/check"),
+            path -> path.equals("/api/stripe/webhook"),
+            path -> path.startsWith("/login/"),
+            path -> path.startsWith("/oauth2/"),
+            path -> path.equals("/error")
+    );
+
+    private static final List<Predicate<String>> PROTECTED_PATHS = List.of(
+            path -> path.startsWith("/api/user/"),
+            path -> path.startsWith("/api/membership/status"),
+            path -> path.startsWith("/api/membership/my-status"),
+            path -> path.startsWith("/api/membership/retry-payment"),
+            path -> path.startsWith("/api/admin/"),
+            path -> path.startsWith("/api/blog/")
+    );
+
+    @Param({"/api/auth/login-user", "/api/blog/posts/42", "/api/newsletter/unsubscribe"})
+    public String path;
+
+    private PathClassifier classifier;
+
+    @Setup
+    public void setUp() {
+        PathPolicyProperties properties = new PathPolicyProperties();
+        properties.setPublicPaths(List.of("/api/auth/**", "/api/newsletter/add-email", "/api/membership/register",
+                "/api/membership/check", "/api/stripe/webhook", "/login/**", "/oauth2/**", "/error"));
+        properties.setProtectedPaths(List.of("/api/user/**", "/api/membership/status**",
+                "/api/membership/my-status**", "/api/membership/retry-payment**", "/api/admin/**", "/api/blog/**"));
+        classifier = new PathClassifier(properties);
+    }
+
+    @Benchmark
+    public PathAccess trie() {
+        return classifier.classify(path);
+    }
+
+    @Benchmark
+    public PathAccess lambdaLists() {
+        if (PUBLIC_PATHS.stream().anyMatch(m -> m.test(path))) {
+            return PathAccess.PUBLIC;
+        }
+        if (PROTECTED_PATHS.stream().anyMatch(m -> m.test(path))) {
+            return PathAccess.PROTECTED;
+        }
+        return PathAccess.OTHER;
+    }
+}
@@ -3,6 +3,9 @@ package com.ubcmmhcsoftware.gateway.config;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+import java.util.List;
+
 @Configuration
 public class GatewayAppProperties {
 
@@ -12,6 +15,39 @@ public class GatewayAppProperties {
     @Value("${app.jwt-cookie.name:JWT}")
     private String jwtCookieName;
 
+    @Value("${app.jwt.jwks-uri:http://localhost:8082/.well-known/jwks.json}")
+    private String jwtJwksUri;
+
+    @Value("${app.jwt.jwks-refresh-interval:PT5M}")
+    private Duration jwtJwksRefreshInterval;
+
+    @Value("${app.jwt.refresh-uri:http://localhost:8082/api/auth/refresh}")
+    private String jwtRefreshUri;
+
+    @Value("${app.jwt.refresh-before-expiry:PT1M}")
+    private Duration jwtRefreshBeforeExpiry;
+
+    @Value("${app.refresh-token.cookie-name:REFRESH}")
+    private String refreshTokenCookieName;
+
+    @Value("${app.revocation.channel:auth:revocations}")
+    private String revocationChannel;
+
+    @Value("${app.revocation.key:auth:revoked}")
+    private String revocationKey;
+
+    @Value("${app.revocation.resync-interval:PT1M}")
+    private Duration revocationResyncInterval;
+
+    @Value("${app.revocation.expected-entries:10000}")
+    private int revocationExpectedEntries;
+
+    @Value("${app.jwt.cache.max-size:10000}")
+    private long jwtCacheMaxSize;
+
+    @Value("${app.rate-limit.trusted-proxies:127.0.0.0/8,::1,10.0.0.0/8,172.16.0.0/12,192.168.0.0/16,fc00::/7}")
+    private List<String> trustedProxies;
+
     public String getFrontendUrl() {
         return frontendUrl;
     }
@@ -19,4 +55,48 @@ public class GatewayAppProperties {
     public String getJwtCookieName() {
         return jwtCookieName;
     }
+
+    public String getJwtJwksUri() {
+        return jwtJwksUri;
+    }
+
+    public Duration getJwtJwksRefreshInterval() {
+        return jwtJwksRefreshInterval;
+    }
+
+    public String getJwtRefreshUri() {
+        return jwtRefreshUri;
+    }
+
+    public Duration getJwtRefreshBeforeExpiry() {
+        return jwtRefreshBeforeExpiry;
+    }
+
+    public String getRefreshTokenCookieName() {
+        return refreshTokenCookieName;
+    }
+
+    public String getRevocationChannel() {
+        return revocationChannel;
+    }
+
+    public String getRevocationKey() {
+        return revocationKey;
+    }
+
+    public Duration getRevocationResyncInterval() {
+        return revocationResyncInterval;
+    }
+
+    public int getRevocationExpectedEntries() {
+        return revocationExpectedEntries;
+    }
+
+    public long getJwtCacheMaxSize() {
+        return jwtCacheMaxSize;
+    }
+
+    public List<String> getTrustedProxies() {
+        return trustedProxies;
+    }
 }
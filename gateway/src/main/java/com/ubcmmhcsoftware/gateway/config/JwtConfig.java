@@ -1,26 +1,28 @@
 package com.ubcmmhcsoftware.gateway.config;
 
-import org.springframework.beans.factory.annotation.Value;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import com.ubcmmhcsoftware.gateway.jwt.JwksKeySource;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 
-import javax.crypto.SecretKey;
-import javax.crypto.spec.SecretKeySpec;
-import java.nio.charset.StandardCharsets;
-
 /**
- * JWT decoder configuration using the same HS256 secret as Auth Service.
- * Auth Service is the sole issuer; gateway validates tokens for downstream forwarding.
+ * JWT decoder for Auth Service's ES256 tokens. Keys are selected by kid from the
+ * in-memory JWKS kept by {@link JwksKeySource}; the gateway holds no signing secret.
  */
 @Configuration
 public class JwtConfig {
 
     @Bean
-    public JwtDecoder jwtDecoder(@Value("${app.jwt.secret}") String secret) {
-        byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
-        SecretKey key = new SecretKeySpec(keyBytes, "HmacSHA256");
-        return NimbusJwtDecoder.withSecretKey(key).build();
+    public JwtDecoder jwtDecoder(JwksKeySource jwksKeySource) {
+        DefaultJWTProcessor<SecurityContext> processor = new DefaultJWTProcessor<>();
+        processor.setJWSKeySelector(new JWSVerificationKeySelector<>(JWSAlgorithm.ES256, jwksKeySource));
+        // exp/nbf are checked by NimbusJwtDecoder's default validators
+        processor.setJWTClaimsSetVerifier((claims, context) -> { });
+        return new NimbusJwtDecoder(processor);
     }
 }
@@ -0,0 +1,24 @@
+package com.ubcmmhcsoftware.gateway.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Public and protected path patterns used by JwtClaimForwardingGlobalFilter.
+ * A pattern ending in "**" matches any path starting with the text before it;
+ * any other pattern must match the path exactly.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.security")
+@Getter
+@Setter
+public class PathPolicyProperties {
+
+    private List<String> publicPaths = new ArrayList<>();
+    private List<String> protectedPaths = new ArrayList<>();
+}
@@ -1,27 +1,57 @@
 package com.ubcmmhcsoftware.gateway.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ubcmmhcsoftware.gateway.jwt.ForwardedClaims;
+import com.ubcmmhcsoftware.gateway.ratelimit.ClientIpResolver;
+import com.ubcmmhcsoftware.gateway.ratelimit.EmailKeyResolver;
+import com.ubcmmhcsoftware.gateway.ratelimit.LeasedRateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.cloud.gateway.support.ConfigurationService;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
 import reactor.core.publisher.Mono;
 
 /**
- * Key resolver for Redis-backed rate limiting.
- * Uses client IP (from X-Forwarded-For when behind proxy) for per-IP limits.
+ * Rate limiter and key resolvers for Redis-backed rate limiting.
+ * Routes pick a key with {@code key-resolver} and their own budget with
+ * {@code leased-rate-limiter.*} args in application.yml:
+ * <ul>
+ *   <li>{@code ipKeyResolver} - client IP, see {@link ClientIpResolver}</li>
+ *   <li>{@code userIdKeyResolver} - X-User-Id set by the JWT filter, else client IP</li>
+ *   <li>{@code emailKeyResolver} - hash of the body's email field, else client IP</li>
+ * </ul>
  */
 @Configuration
 public class RateLimiterConfig {
 
     @Bean
-    public KeyResolver ipKeyResolver() {
+    @Primary
+    public LeasedRateLimiter leasedRateLimiter(ReactiveStringRedisTemplate redisTemplate,
+                                               ConfigurationService configurationService,
+                                               MeterRegistry meterRegistry) {
+        return new LeasedRateLimiter(redisTemplate, configurationService, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public KeyResolver ipKeyResolver(ClientIpResolver clientIpResolver) {
+        return exchange -> Mono.just(clientIpResolver.resolve(exchange));
+    }
+
+    @Bean
+    public KeyResolver userIdKeyResolver(ClientIpResolver clientIpResolver) {
         return exchange -> {
-            String xForwardedFor = exchange.getRequest().getHeaders().getFirst("X-Forwarded-For");
-            String ip = xForwardedFor != null && !xForwardedFor.isEmpty()
-                    ? xForwardedFor.split(",")[0].trim()
-                    : exchange.getRequest().getRemoteAddress() != null
-                            ? exchange.getRequest().getRemoteAddress().getAddress().getHostAddress()
-                            : "unknown";
-            return Mono.just(ip);
+            // On protected paths the JWT filter has replaced any client-sent value with the verified id
+            String userId = exchange.getRequest().getHeaders().getFirst(ForwardedClaims.X_USER_ID);
+            return Mono.just(userId != null && !userId.isEmpty() ? "user:" + userId : clientIpResolver.resolve(exchange));
         };
     }
+
+    @Bean
+    public KeyResolver emailKeyResolver(ObjectMapper objectMapper, ClientIpResolver clientIpResolver) {
+        return new EmailKeyResolver(objectMapper, exchange -> Mono.just(clientIpResolver.resolve(exchange)));
+    }
 }
@@ -0,0 +1,207 @@
+package com.ubcmmhcsoftware.gateway.filter;
+
+import com.ubcmmhcsoftware.gateway.jwt.ForwardedClaims;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.ServerWebExchangeDecorator;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Exchange whose request exposes the original headers overlaid with the cached claim
+ * headers. Unlike request.mutate(), nothing is copied per request; client-supplied
+ * X-User-* headers are shadowed by the overlay. After the gateway refreshes an access token,
+ * Authorization is overlaid too, so downstream sees the new token instead of the expired cookie.
+ */
+final class ClaimForwardingExchange extends ServerWebExchangeDecorator {
+
+    private final ServerHttpRequest request;
+
+    ClaimForwardingExchange(ServerWebExchange delegate, ForwardedClaims claims) {
+        this(delegate, claims, null);
+    }
+
+    /**
+     * @param accessToken if not null, forwarded as "Authorization: Bearer ..." in place of the client's
+     */
+    ClaimForwardingExchange(ServerWebExchange delegate, ForwardedClaims claims, String accessToken) {
+        super(delegate);
+        this.request = new ClaimForwardingRequest(delegate.getRequest(), claims, accessToken);
+    }
+
+    @Override
+    public ServerHttpRequest getRequest() {
+        return request;
+    }
+
+    private static final class ClaimForwardingRequest extends ServerHttpRequestDecorator {
+
+        private final HttpHeaders headers;
+
+        ClaimForwardingRequest(ServerHttpRequest delegate, ForwardedClaims claims, String accessToken) {
+            super(delegate);
+            this.headers = new HttpHeaders(new ClaimHeaders(delegate.getHeaders(), claims,
+                    accessToken != null ? List.of("Bearer " + accessToken) : null));
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+
+    /**
+     * Read-only view of the original headers with the claim headers replaced.
+     */
+    private static final class ClaimHeaders extends AbstractMap<String, List<String>>
+            implements MultiValueMap<String, String> {
+
+        private final HttpHeaders original;
+        private final ForwardedClaims claims;
+        private final List<String> authorization;
+        private final List<String> names;
+
+        ClaimHeaders(HttpHeaders original, ForwardedClaims claims, List<String> authorization) {
+            this.original = original;
+            this.claims = claims;
+            this.authorization = authorization;
+            this.names = authorization == null ? ForwardedClaims.HEADER_NAMES
+                    : Stream.concat(ForwardedClaims.HEADER_NAMES.stream(), Stream.of(HttpHeaders.AUTHORIZATION)).toList();
+        }
+
+        private List<String> overlay(String name) {
+            if (authorization != null && HttpHeaders.AUTHORIZATION.equalsIgnoreCase(name)) {
+                return authorization;
+            }
+            return claims.headerValues(name);
+        }
+
+        @Override
+        public List<String> get(Object key) {
+            if (key instanceof String name) {
+                List<String> values = overlay(name);
+                if (values != null) {
+                    return values;
+                }
+            }
+            return original.get(key);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return (key instanceof String name && overlay(name) != null) || original.containsKey(key);
+        }
+
+        @Override
+        public String getFirst(String key) {
+            List<String> values = overlay(key);
+            return values != null ? values.get(0) : original.getFirst(key);
+        }
+
+        @Override
+        public int size() {
+            int shadowed = 0;
+            for (String name : names) {
+                if (original.containsKey(name)) {
+                    shadowed++;
+                }
+            }
+            return original.size() - shadowed + names.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return false;
+        }
+
+        @Override
+        public void forEach(BiConsumer<? super String, ? super List<String>> action) {
+            original.forEach((name, values) -> {
+                if (overlay(name) == null) {
+                    action.accept(name, values);
+                }
+            });
+            for (String name : names) {
+                action.accept(name, overlay(name));
+            }
+        }
+
+        @Override
+        public Set<Entry<String, List<String>>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, List<String>>> iterator() {
+                    return Stream.concat(
+                                    original.entrySet().stream()
+                                            .filter(e -> overlay(e.getKey()) == null),
+                                    names.stream()
+                                            .map(name -> Map.entry(name, overlay(name))))
+                            .iterator();
+                }
+
+                @Override
+                public int size() {
+                    return ClaimHeaders.this.size();
+                }
+            };
+        }
+
+        @Override
+        public Map<String, String> toSingleValueMap() {
+            Map<String, String> map = new LinkedHashMap<>();
+            forEach((name, values) -> map.put(name, values.isEmpty() ? null : values.get(0)));
+            return map;
+        }
+
+        @Override
+        public void add(String key, String value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void addAll(String key, List<? extends String> values) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void addAll(MultiValueMap<String, String> values) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void set(String key, String value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void setAll(Map<String, String> values) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<String> put(String key, List<String> value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<String> remove(Object key) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void clear() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -1,118 +1,121 @@
 package com.ubcmmhcsoftware.gateway.filter;
 
 import com.ubcmmhcsoftware.gateway.config.GatewayAppProperties;
+import com.ubcmmhcsoftware.gateway.filter.PathClassifier.PathAccess;
+import com.ubcmmhcsoftware.gateway.jwt.ForwardedClaims;
+import com.ubcmmhcsoftware.gateway.jwt.RevocationList;
+import com.ubcmmhcsoftware.gateway.jwt.TokenRefresher;
+import com.ubcmmhcsoftware.gateway.jwt.VerifiedTokenCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
 import org.springframework.core.Ordered;
+import org.springframework.http.HttpCookie;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpResponse;
-import org.springframework.security.oauth2.jwt.Jwt;
-import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
-import java.util.List;
-import java.util.stream.Collectors;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.Set;
 
 /**
  * Validates JWT from Bearer header or cookie, extracts claims, and forwards them
  * in headers (X-User-Id, X-User-Email, X-User-Roles) to downstream services.
- * Public routes are allowed through without a token.
+ * Public routes are allowed through without a token; path classification comes from
+ * {@link PathClassifier}. Verified tokens are cached until their exp (see {@link VerifiedTokenCache})
+ * and then checked against the in-memory {@link RevocationList}.
+ *
+ * <p>When a protected path is requested with an access token that is missing, invalid or close
+ * to expiry and the client sent a refresh cookie, the token is refreshed first
+ * ({@link TokenRefresher}): the new cookies go back to the client and the request continues
+ * with the new token. If refreshing fails, the request is handled with whatever token it came
+ * with. Other paths never refresh, so a refresh cookie alone can't make anonymous traffic call
+ * Auth Service.
  */
 @Component
 @RequiredArgsConstructor
 public class JwtClaimForwardingGlobalFilter implements GlobalFilter, Ordered {
 
-    private static final String X_USER_ID = "X-User-Id";
-    private static final String X_USER_EMAIL = "X-User-Email";
-    private static final String X_USER_ROLES = "X-User-Roles";
-
-    private static final List<PathMatcher> PUBLIC_PATHS = List.of(
-            path -> path.startsWith("/api/auth/"),
-            path -> path.equals("/api/newsletter/add-email"),
-            path -> path.equals("/api/membership/register"),
-            path -> path.equals("/api/membership/check"),
-            path -> path.equals("/api/stripe/webhook"),
-            path -> path.startsWith("/login/"),
-            path -> path.startsWith("/oauth2/"),
-            path -> path.equals("/error")
-    );
-
-    private static final List<PathMatcher> PROTECTED_PATHS = List.of(
-            path -> path.startsWith("/api/user/"),
-            path -> path.startsWith("/api/membership/status"),
-            path -> path.startsWith("/api/membership/my-status"),
-            path -> path.startsWith("/api/membership/retry-payment"),
-            path -> path.startsWith("/api/admin/"),
-            path -> path.startsWith("/api/blog/")
-    );
-
-    private final JwtDecoder jwtDecoder;
+    /** Requests that start or end a session themselves; refreshing first would race their cookies. */
+    private static final Set<String> SESSION_PATHS = Set.of(
+            "/api/auth/refresh", "/api/auth/logout", "/api/auth/login-user",
+            "/api/auth/register-user", "/api/auth/set-token");
+
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final TokenRefresher tokenRefresher;
+    private final RevocationList revocationList;
+    private final PathClassifier pathClassifier;
     private final GatewayAppProperties gatewayAppProperties;
 
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
         String path = exchange.getRequest().getPath().value();
-
-        if (isPublicPath(path)) {
-            return maybeAddClaims(exchange).flatMap(chain::filter);
-        }
+        PathAccess access = pathClassifier.classify(path);
 
         String token = extractToken(exchange.getRequest());
+        ForwardedClaims claims = token != null ? verify(token) : null;
 
-        if (token == null) {
-            if (isProtectedPath(path)) {
-                return unauthorized(exchange.getResponse());
-            }
-            return chain.filter(exchange);
+        String refreshToken = access == PathAccess.PROTECTED && needsRefresh(claims) && !isSessionPath(path)
+                ? extractRefreshToken(exchange.getRequest()) : null;
+        if (refreshToken == null) {
+            return proceed(exchange, chain, access, claims);
         }
 
-        try {
-            Jwt jwt = jwtDecoder.decode(token);
-            return chain.filter(addClaimHeaders(exchange, jwt));
-        } catch (Exception e) {
-            // JWT invalid or expired
-            if (isProtectedPath(path)) {
-                return unauthorized(exchange.getResponse());
-            }
-            return chain.filter(exchange);
-        }
+        return tokenRefresher.refresh(refreshToken)
+                .map(refreshed -> {
+                    ForwardedClaims refreshedClaims = verifiedTokenCache.resolve(refreshed.accessToken());
+                    exchange.getResponse().getHeaders().addAll(HttpHeaders.SET_COOKIE, refreshed.setCookieHeaders());
+                    return Optional.<ServerWebExchange>of(
+                            new ClaimForwardingExchange(exchange, refreshedClaims, refreshed.accessToken()));
+                })
+                .onErrorReturn(Optional.empty())
+                .flatMap(refreshedExchange -> refreshedExchange
+                        .map(chain::filter)
+                        .orElseGet(() -> proceed(exchange, chain, access, claims)));
     }
 
-    private Mono<ServerWebExchange> maybeAddClaims(ServerWebExchange exchange) {
-        String token = extractToken(exchange.getRequest());
-        if (token == null) {
-            return Mono.just(exchange);
+    private Mono<Void> proceed(ServerWebExchange exchange, GatewayFilterChain chain,
+                               PathAccess access, ForwardedClaims claims) {
+        if (claims != null) {
+            return chain.filter(addClaimHeaders(exchange, claims));
+        }
+        if (access == PathAccess.PROTECTED) {
+            return unauthorized(exchange.getResponse());
         }
+        return chain.filter(exchange);
+    }
+
+    /**
+     * Returns null if the token is invalid, expired or revoked.
+     */
+    private ForwardedClaims verify(String token) {
+        ForwardedClaims claims;
         try {
-            Jwt jwt = jwtDecoder.decode(token);
-            return Mono.just(addClaimHeaders(exchange, jwt));
+            claims = verifiedTokenCache.resolve(token);
         } catch (Exception e) {
-            return Mono.just(exchange);
+            return null;
         }
+        return revocationList.isRevoked(claims) ? null : claims;
     }
 
-    private ServerWebExchange addClaimHeaders(ServerWebExchange exchange, Jwt jwt) {
-        String userId = jwt.getSubject();
-        String email = jwt.getClaimAsString("email");
-        @SuppressWarnings("unchecked")
-        List<String> roles = jwt.hasClaim("roles") ? jwt.getClaim("roles") : List.of();
-
-        String rolesHeader = roles.stream()
-                .map(r -> r.startsWith("ROLE_") ? r : "ROLE_" + r)
-                .collect(Collectors.joining(","));
+    private boolean needsRefresh(ForwardedClaims claims) {
+        return claims == null
+                || (claims.expiresAt() != null && Instant.now()
+                .plus(gatewayAppProperties.getJwtRefreshBeforeExpiry())
+                .isAfter(claims.expiresAt()));
+    }
 
-        ServerHttpRequest request = exchange.getRequest().mutate()
-                .header(X_USER_ID, userId)
-                .header(X_USER_EMAIL, email != null ? email : "")
-                .header(X_USER_ROLES, rolesHeader)
-                .build();
+    private static boolean isSessionPath(String path) {
+        return SESSION_PATHS.contains(path) || path.startsWith("/login/") || path.startsWith("/oauth2/");
+    }
 
-        return exchange.mutate().request(request).build();
+    private ServerWebExchange addClaimHeaders(ServerWebExchange exchange, ForwardedClaims claims) {
+        return new ClaimForwardingExchange(exchange, claims);
     }
 
     private String extractToken(ServerHttpRequest request) {
@@ -121,19 +124,19 @@ public class JwtClaimForwardingGlobalFilter implements GlobalFilter, Ordered {
             String token = authHeader.substring(7).trim();
             if (!token.isEmpty()) return token;
         }
-        if (request.getCookies().containsKey(gatewayAppProperties.getJwtCookieName())) {
-            String cookieValue = request.getCookies().getFirst(gatewayAppProperties.getJwtCookieName()).getValue();
-            if (cookieValue != null && !cookieValue.isBlank()) return cookieValue.trim();
-        }
-        return null;
+        return cookieValue(request, gatewayAppProperties.getJwtCookieName());
     }
 
-    private boolean isPublicPath(String path) {
-        return PUBLIC_PATHS.stream().anyMatch(m -> m.matches(path));
+    private String extractRefreshToken(ServerHttpRequest request) {
+        return cookieValue(request, gatewayAppProperties.getRefreshTokenCookieName());
     }
 
-    private boolean isProtectedPath(String path) {
-        return PROTECTED_PATHS.stream().anyMatch(m -> m.matches(path));
+    private static String cookieValue(ServerHttpRequest request, String name) {
+        HttpCookie cookie = request.getCookies().getFirst(name);
+        if (cookie != null && cookie.getValue() != null && !cookie.getValue().isBlank()) {
+            return cookie.getValue().trim();
+        }
+        return null;
     }
 
     private Mono<Void> unauthorized(ServerHttpResponse response) {
@@ -145,9 +148,4 @@ public class JwtClaimForwardingGlobalFilter implements GlobalFilter, Ordered {
     public int getOrder() {
         return -100; // Run early in the filter chain
     }
-
-    @FunctionalInterface
-    private interface PathMatcher {
-        boolean matches(String path);
-    }
 }
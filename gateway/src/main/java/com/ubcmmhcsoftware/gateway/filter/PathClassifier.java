@@ -0,0 +1,104 @@
+package com.ubcmmhcsoftware.gateway.filter;
+
+import com.ubcmmhcsoftware.gateway.config.PathPolicyProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+
+/**
+ * Classifies request paths as PUBLIC, PROTECTED or OTHER in a single pass over a
+ * character trie compiled from {@link PathPolicyProperties}. Public patterns win
+ * over protected ones, matching the order the filter checks them in.
+ */
+@Component
+public class PathClassifier {
+
+    private static final String PREFIX_SUFFIX = "**";
+    private static final byte PUBLIC_MASK = 1;
+    private static final byte PROTECTED_MASK = 2;
+
+    public enum PathAccess {
+        PUBLIC,
+        PROTECTED,
+        OTHER
+    }
+
+    private final Node root = new Node();
+
+    public PathClassifier(PathPolicyProperties properties) {
+        properties.getPublicPaths().forEach(p -> insert(p, PUBLIC_MASK));
+        properties.getProtectedPaths().forEach(p -> insert(p, PROTECTED_MASK));
+    }
+
+    public PathAccess classify(String path) {
+        Node node = root;
+        int mask = node.prefixMask;
+        int length = path.length();
+        int i = 0;
+
+        while (i < length) {
+            node = node.child(path.charAt(i));
+            if (node == null) {
+                break;
+            }
+            mask |= node.prefixMask;
+            i++;
+        }
+        if (i == length) {
+            mask |= node.exactMask;
+        }
+
+        if ((mask & PUBLIC_MASK) != 0) {
+            return PathAccess.PUBLIC;
+        }
+        if ((mask & PROTECTED_MASK) != 0) {
+            return PathAccess.PROTECTED;
+        }
+        return PathAccess.OTHER;
+    }
+
+    private void insert(String pattern, byte mask) {
+        boolean prefix = pattern.endsWith(PREFIX_SUFFIX);
+        String literal = prefix ? pattern.substring(0, pattern.length() - PREFIX_SUFFIX.length()) : pattern;
+
+        Node node = root;
+        for (int i = 0; i < literal.length(); i++) {
+            node = node.childOrCreate(literal.charAt(i));
+        }
+        if (prefix) {
+            node.prefixMask |= mask;
+        } else {
+            node.exactMask |= mask;
+        }
+    }
+
+    private static final class Node {
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+        private byte prefixMask;
+        private byte exactMask;
+
+        Node child(char c) {
+            char[] k = keys;
+            for (int i = 0; i < k.length; i++) {
+                if (k[i] == c) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        Node childOrCreate(char c) {
+            Node existing = child(c);
+            if (existing != null) {
+                return existing;
+            }
+            Node created = new Node();
+            keys = Arrays.copyOf(keys, keys.length + 1);
+            children = Arrays.copyOf(children, children.length + 1);
+            keys[keys.length - 1] = c;
+            children[children.length - 1] = created;
+            return created;
+        }
+    }
+}
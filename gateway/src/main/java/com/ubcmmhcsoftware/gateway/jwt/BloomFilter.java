@@ -0,0 +1,68 @@
+package com.ubcmmhcsoftware.gateway.jwt;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size Bloom filter over strings. {@link #mightContain} never misses a key that was
+ * added and, up to the capacity it was sized for, wrongly reports about 1% of other keys.
+ * Bits are set atomically, so readers need no lock.
+ */
+final class BloomFilter {
+
+    private static final int HASHES = 7;
+    /** 9.6 bits per entry with 7 hashes gives ~1% false positives. */
+    private static final double BITS_PER_ENTRY = 9.6;
+
+    private final AtomicLongArray words;
+    private final long mask;
+
+    BloomFilter(int capacity) {
+        long wanted = (long) Math.ceil(Math.max(capacity, 64) * BITS_PER_ENTRY);
+        long bits = Long.highestOneBit(wanted);
+        if (bits < wanted) {
+            bits <<= 1;
+        }
+        this.words = new AtomicLongArray((int) (bits >>> 6));
+        this.mask = bits - 1;
+    }
+
+    void add(String key) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < HASHES; i++) {
+            long bit = (h1 + (long) i * h2) & mask;
+            int word = (int) (bit >>> 6);
+            long flag = 1L << bit;
+            words.getAndUpdate(word, w -> w | flag);
+        }
+    }
+
+    boolean mightContain(String key) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < HASHES; i++) {
+            long bit = (h1 + (long) i * h2) & mask;
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** FNV-1a over the chars, then MurmurHash3's finalizer so both halves are well mixed. */
+    private static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
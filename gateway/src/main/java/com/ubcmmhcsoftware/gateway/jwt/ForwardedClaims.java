@@ -0,0 +1,121 @@
+package com.ubcmmhcsoftware.gateway.jwt;
+
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.stream.Collectors;
+
+/**
+ * Header values forwarded downstream for a verified JWT
+ * (X-User-Id, X-User-Email, X-User-Roles), plus the token's jti, iat and exp for revocation checks.
+ * Values are held as ready-made header lists so forwarding does not allocate per request.
+ */
+public final class ForwardedClaims {
+
+    public static final String X_USER_ID = "X-User-Id";
+    public static final String X_USER_EMAIL = "X-User-Email";
+    public static final String X_USER_ROLES = "X-User-Roles";
+    public static final List<String> HEADER_NAMES = List.of(X_USER_ID, X_USER_EMAIL, X_USER_ROLES);
+
+    /** Bit i of the "rl" claim is ROLE_NAMES[i]: auth-service RoleEnum ordinals, append-only. */
+    private static final List<String> ROLE_NAMES =
+            List.of("ROLE_USER", "ROLE_BLOG_EDITOR", "ROLE_BLOG_MANAGER", "ROLE_ADMIN", "ROLE_SUPERADMIN");
+    private static final int KNOWN_ROLE_BITS = (1 << ROLE_NAMES.size()) - 1;
+    /** X-User-Roles value for every combination of known roles, indexed by mask. */
+    private static final String[] ROLES_HEADER_BY_MASK = new String[KNOWN_ROLE_BITS + 1];
+
+    static {
+        for (int mask = 0; mask <= KNOWN_ROLE_BITS; mask++) {
+            StringJoiner joiner = new StringJoiner(",");
+            for (int bit = 0; bit < ROLE_NAMES.size(); bit++) {
+                if ((mask & (1 << bit)) != 0) {
+                    joiner.add(ROLE_NAMES.get(bit));
+                }
+            }
+            ROLES_HEADER_BY_MASK[mask] = joiner.toString();
+        }
+    }
+
+    private final List<String> userId;
+    private final List<String> email;
+    private final List<String> roles;
+    private final String tokenId;
+    private final Instant issuedAt;
+    private final Instant expiresAt;
+
+    public ForwardedClaims(String userId, String email, String roles, String tokenId, Instant issuedAt,
+                           Instant expiresAt) {
+        this.userId = List.of(userId != null ? userId : "");
+        this.email = List.of(email != null ? email : "");
+        this.roles = List.of(roles);
+        this.tokenId = tokenId;
+        this.issuedAt = issuedAt;
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * Reads the compact profile ("em", "rl" role bitmask) and falls back to the older
+     * "email" and "roles" claims. Unknown role bits are dropped.
+     */
+    public static ForwardedClaims from(Jwt jwt) {
+        String rolesHeader;
+        Object roleMask = jwt.getClaim("rl");
+        if (roleMask instanceof Number mask) {
+            rolesHeader = ROLES_HEADER_BY_MASK[(int) (mask.longValue() & KNOWN_ROLE_BITS)];
+        } else {
+            @SuppressWarnings("unchecked")
+            List<String> roles = jwt.hasClaim("roles") ? jwt.getClaim("roles") : List.of();
+            rolesHeader = roles.stream()
+                    .map(r -> r.startsWith("ROLE_") ? r : "ROLE_" + r)
+                    .collect(Collectors.joining(","));
+        }
+
+        String email = jwt.hasClaim("em") ? jwt.getClaimAsString("em") : jwt.getClaimAsString("email");
+        return new ForwardedClaims(jwt.getSubject(), email, rolesHeader, jwt.getId(), jwt.getIssuedAt(),
+                jwt.getExpiresAt());
+    }
+
+    /**
+     * Returns the forwarded values for one of {@link #HEADER_NAMES} (case-insensitive),
+     * or null if the name is not a claim header.
+     */
+    public List<String> headerValues(String name) {
+        if (X_USER_ID.equalsIgnoreCase(name)) {
+            return userId;
+        }
+        if (X_USER_EMAIL.equalsIgnoreCase(name)) {
+            return email;
+        }
+        if (X_USER_ROLES.equalsIgnoreCase(name)) {
+            return roles;
+        }
+        return null;
+    }
+
+    public String userId() {
+        return userId.get(0);
+    }
+
+    public String email() {
+        return email.get(0);
+    }
+
+    public String roles() {
+        return roles.get(0);
+    }
+
+    /** The jti, or null for tokens issued without one. */
+    public String tokenId() {
+        return tokenId;
+    }
+
+    public Instant issuedAt() {
+        return issuedAt;
+    }
+
+    public Instant expiresAt() {
+        return expiresAt;
+    }
+}
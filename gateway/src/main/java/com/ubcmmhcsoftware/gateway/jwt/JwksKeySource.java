@@ -0,0 +1,113 @@
+package com.ubcmmhcsoftware.gateway.jwt;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jose.util.DefaultResourceRetriever;
+import com.nimbusds.jose.util.ResourceRetriever;
+import com.ubcmmhcsoftware.gateway.config.GatewayAppProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.URL;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Auth Service's JWKS, held in memory and refreshed in the background, so verifying a token
+ * never waits on the network. A token whose kid isn't known yet (a key was just rotated in)
+ * is rejected and triggers an early refresh, at most once per {@link #MIN_REFRESH_GAP}.
+ *
+ * <p>Metrics: gateway.jwks.refresh{outcome=success|failure}, gateway.jwks.keys.
+ */
+@Slf4j
+@Component
+public class JwksKeySource implements JWKSource<SecurityContext> {
+
+    private static final Duration MIN_REFRESH_GAP = Duration.ofSeconds(30);
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(5);
+    private static final int TIMEOUT_MILLIS = 2000;
+    private static final int SIZE_LIMIT_BYTES = 64 * 1024;
+
+    private final URL jwksUrl;
+    private final Duration refreshInterval;
+    private final ResourceRetriever retriever = new DefaultResourceRetriever(TIMEOUT_MILLIS, TIMEOUT_MILLIS, SIZE_LIMIT_BYTES);
+    private final ScheduledExecutorService scheduler;
+    private final AtomicLong lastOnDemandRefresh = new AtomicLong(System.nanoTime() - MIN_REFRESH_GAP.toNanos());
+
+    private final Counter refreshed;
+    private final Counter failed;
+
+    private volatile JWKSet jwkSet = new JWKSet();
+
+    public JwksKeySource(GatewayAppProperties gatewayAppProperties, MeterRegistry meterRegistry) throws Exception {
+        this.jwksUrl = URI.create(gatewayAppProperties.getJwtJwksUri()).toURL();
+        this.refreshInterval = gatewayAppProperties.getJwtJwksRefreshInterval();
+        this.refreshed = Counter.builder("gateway.jwks.refresh").tag("outcome", "success").register(meterRegistry);
+        this.failed = Counter.builder("gateway.jwks.refresh").tag("outcome", "failure").register(meterRegistry);
+        Gauge.builder("gateway.jwks.keys", this, source -> source.jwkSet.getKeys().size()).register(meterRegistry);
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "jwks-refresh");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.execute(this::refreshAndReschedule);
+    }
+
+    @Override
+    public List<JWK> get(JWKSelector jwkSelector, SecurityContext context) {
+        List<JWK> matches = jwkSelector.select(jwkSet);
+        if (matches.isEmpty()) {
+            refreshSoon();
+        }
+        return matches;
+    }
+
+    private void refreshSoon() {
+        long now = System.nanoTime();
+        long last = lastOnDemandRefresh.get();
+        if (now - last >= MIN_REFRESH_GAP.toNanos() && lastOnDemandRefresh.compareAndSet(last, now)) {
+            scheduler.execute(this::refresh);
+        }
+    }
+
+    private void refreshAndReschedule() {
+        // Until the first successful load, keep retrying quickly (Auth Service may start after us)
+        Duration next = refresh() || !jwkSet.getKeys().isEmpty() ? refreshInterval : RETRY_DELAY;
+        scheduler.schedule(this::refreshAndReschedule, next.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private boolean refresh() {
+        try {
+            JWKSet loaded = JWKSet.parse(retriever.retrieveResource(jwksUrl).getContent());
+            if (!loaded.getKeys().equals(jwkSet.getKeys())) {
+                log.info("Loaded JWKS from {}: kids {}", jwksUrl,
+                        loaded.getKeys().stream().map(JWK::getKeyID).toList());
+            }
+            jwkSet = loaded;
+            refreshed.increment();
+            return true;
+        } catch (Exception e) {
+            failed.increment();
+            log.warn("Could not refresh JWKS from {}: {}", jwksUrl, e.toString());
+            return false;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
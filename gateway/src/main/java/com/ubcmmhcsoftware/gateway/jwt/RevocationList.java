@@ -0,0 +1,192 @@
+package com.ubcmmhcsoftware.gateway.jwt;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ubcmmhcsoftware.gateway.config.GatewayAppProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.connection.ReactiveSubscription;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.ReactiveRedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Access tokens revoked by Auth Service before their exp (logout, password reset), held in
+ * memory so the per-request check is a Bloom filter probe and, only on a hit, a map lookup.
+ * Revocations arrive on a Redis pub/sub channel; on (re)subscribing and every resync interval
+ * the pod also loads Auth Service's sorted set of live revocations, covering anything published
+ * while it was disconnected. Entries are dropped once the tokens they cover have expired.
+ *
+ * <p>If Redis is unavailable, tokens are only checked against what is already in memory.
+ *
+ * <p>Metrics: gateway.revocation.entries{kind=token|user}, gateway.revocation.rejected,
+ * gateway.revocation.sync{outcome=success|failure}.
+ */
+@Slf4j
+@Component
+public class RevocationList {
+
+    private static final Duration SYNC_TIMEOUT = Duration.ofSeconds(5);
+    private static final Duration MAX_RETRY_DELAY = Duration.ofSeconds(30);
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final String channel;
+    private final String key;
+    private final int expectedEntries;
+    private final ScheduledExecutorService scheduler;
+    private final Disposable subscription;
+
+    /** jti -> exp (epoch seconds). */
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+    /** user id -> tokens issued before this are revoked. */
+    private final Map<String, UserRevocation> revokedUsers = new ConcurrentHashMap<>();
+    private volatile BloomFilter filter;
+
+    private final Counter rejected;
+    private final Counter synced;
+    private final Counter syncFailed;
+
+    private record UserRevocation(long issuedBefore, long expiresAt) {
+    }
+
+    public RevocationList(ReactiveStringRedisTemplate redisTemplate, ReactiveRedisConnectionFactory connectionFactory,
+                          ObjectMapper objectMapper, GatewayAppProperties gatewayAppProperties,
+                          MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.channel = gatewayAppProperties.getRevocationChannel();
+        this.key = gatewayAppProperties.getRevocationKey();
+        this.expectedEntries = gatewayAppProperties.getRevocationExpectedEntries();
+        this.filter = new BloomFilter(expectedEntries);
+
+        this.rejected = Counter.builder("gateway.revocation.rejected").register(meterRegistry);
+        this.synced = Counter.builder("gateway.revocation.sync").tag("outcome", "success").register(meterRegistry);
+        this.syncFailed = Counter.builder("gateway.revocation.sync").tag("outcome", "failure").register(meterRegistry);
+        Gauge.builder("gateway.revocation.entries", revokedTokens, Map::size).tag("kind", "token").register(meterRegistry);
+        Gauge.builder("gateway.revocation.entries", revokedUsers, Map::size).tag("kind", "user").register(meterRegistry);
+
+        // The container connects when created, so it is created (and recreated) inside the retry
+        this.subscription = Flux.usingWhen(
+                        Mono.fromCallable(() -> new ReactiveRedisMessageListenerContainer(connectionFactory)),
+                        container -> container.receiveLater(ChannelTopic.of(channel))
+                                // Listen first, then load the backlog, so nothing published in between is missed
+                                .flatMapMany(messages -> Flux.merge(
+                                        messages.map(ReactiveSubscription.Message::getMessage), snapshot())),
+                        ReactiveRedisMessageListenerContainer::destroyLater)
+                .doOnNext(this::apply)
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                        .maxBackoff(MAX_RETRY_DELAY)
+                        .doBeforeRetry(signal -> log.warn("Revocation channel {} unavailable: {}",
+                                channel, signal.failure().toString())))
+                .subscribe();
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "revocation-resync");
+            t.setDaemon(true);
+            return t;
+        });
+        long interval = gatewayAppProperties.getRevocationResyncInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::resync, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * True if the token was revoked by jti, or its user's tokens were revoked after it was issued.
+     */
+    public boolean isRevoked(ForwardedClaims claims) {
+        BloomFilter current = filter;
+        String tokenId = claims.tokenId();
+        if (tokenId != null && current.mightContain(tokenId) && revokedTokens.containsKey(tokenId)) {
+            rejected.increment();
+            return true;
+        }
+        if (current.mightContain(claims.userId())) {
+            UserRevocation revocation = revokedUsers.get(claims.userId());
+            if (revocation != null && (claims.issuedAt() == null
+                    || claims.issuedAt().getEpochSecond() < revocation.issuedBefore())) {
+                rejected.increment();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Flux<String> snapshot() {
+        return redisTemplate.opsForZSet().rangeByScore(key,
+                Range.rightUnbounded(Range.Bound.inclusive((double) Instant.now().getEpochSecond())));
+    }
+
+    /**
+     * Reloads the backlog (in case messages were lost while disconnected), drops expired
+     * entries and rebuilds the Bloom filter, which can't forget keys on its own.
+     */
+    private void resync() {
+        try {
+            snapshot().doOnNext(this::apply).then().block(SYNC_TIMEOUT);
+            synced.increment();
+        } catch (Exception e) {
+            syncFailed.increment();
+            log.warn("Could not load revocations from {}: {}", key, e.toString());
+        }
+        rebuild();
+    }
+
+    private void apply(String payload) {
+        try {
+            JsonNode data = objectMapper.readTree(payload).path("data");
+            long expiresAt = data.path("expiresAt").asLong();
+            if (expiresAt <= Instant.now().getEpochSecond()) {
+                return;
+            }
+            String tokenId = data.path("jti").textValue();
+            String userId = data.path("userId").textValue();
+            synchronized (this) {
+                if (tokenId != null) {
+                    revokedTokens.put(tokenId, expiresAt);
+                    filter.add(tokenId);
+                } else if (userId != null && data.hasNonNull("issuedBefore")) {
+                    UserRevocation revocation = new UserRevocation(data.get("issuedBefore").asLong(), expiresAt);
+                    revokedUsers.merge(userId, revocation, (a, b) -> a.issuedBefore() >= b.issuedBefore() ? a : b);
+                    filter.add(userId);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Ignoring malformed revocation: {}", e.getMessage());
+        }
+    }
+
+    private synchronized void rebuild() {
+        long now = Instant.now().getEpochSecond();
+        revokedTokens.values().removeIf(expiresAt -> expiresAt <= now);
+        revokedUsers.values().removeIf(revocation -> revocation.expiresAt() <= now);
+
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedEntries, 2 * (revokedTokens.size() + revokedUsers.size())));
+        revokedTokens.keySet().forEach(rebuilt::add);
+        revokedUsers.keySet().forEach(rebuilt::add);
+        filter = rebuilt;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscription.dispose();
+        scheduler.shutdownNow();
+    }
+}
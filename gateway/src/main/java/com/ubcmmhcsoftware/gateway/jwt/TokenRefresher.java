@@ -0,0 +1,101 @@
+package com.ubcmmhcsoftware.gateway.jwt;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ubcmmhcsoftware.gateway.config.GatewayAppProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpCookie;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Exchanges a refresh token for a new access JWT by calling Auth Service's refresh endpoint
+ * with the refresh cookie. Concurrent requests carrying the same refresh token share one call
+ * (and its outcome, including a failure) for {@link #SHARED_RESULT_TTL}, so a page that fires
+ * several requests as its token expires rotates once instead of tripping reuse detection.
+ *
+ * <p>Metrics: gateway.jwt.refresh{outcome=success|failure}.
+ */
+@Slf4j
+@Component
+public class TokenRefresher {
+
+    private static final Duration SHARED_RESULT_TTL = Duration.ofSeconds(30);
+    private static final Duration TIMEOUT = Duration.ofSeconds(3);
+
+    private final WebClient webClient;
+    private final String refreshUri;
+    private final String refreshCookieName;
+    private final String jwtCookieName;
+    private final Cache<String, Mono<Refreshed>> inFlight;
+
+    private final Counter refreshed;
+    private final Counter failed;
+
+    /**
+     * New access token and the Set-Cookie headers to pass back to the client unchanged.
+     */
+    public record Refreshed(String accessToken, List<String> setCookieHeaders) {
+    }
+
+    public TokenRefresher(WebClient.Builder webClientBuilder, GatewayAppProperties gatewayAppProperties,
+                          MeterRegistry meterRegistry) {
+        this.webClient = webClientBuilder.build();
+        this.refreshUri = gatewayAppProperties.getJwtRefreshUri();
+        this.refreshCookieName = gatewayAppProperties.getRefreshTokenCookieName();
+        this.jwtCookieName = gatewayAppProperties.getJwtCookieName();
+        this.inFlight = Caffeine.newBuilder()
+                .expireAfterWrite(SHARED_RESULT_TTL)
+                .maximumSize(10_000)
+                .build();
+        this.refreshed = Counter.builder("gateway.jwt.refresh").tag("outcome", "success").register(meterRegistry);
+        this.failed = Counter.builder("gateway.jwt.refresh").tag("outcome", "failure").register(meterRegistry);
+    }
+
+    /**
+     * Errors if Auth Service rejects the refresh token or can't be reached.
+     */
+    public Mono<Refreshed> refresh(String refreshToken) {
+        return inFlight.get(refreshToken, token -> call(token).cache());
+    }
+
+    private Mono<Refreshed> call(String refreshToken) {
+        return webClient.post()
+                .uri(refreshUri)
+                .header(HttpHeaders.COOKIE, new HttpCookie(refreshCookieName, refreshToken).toString())
+                .retrieve()
+                .toBodilessEntity()
+                .timeout(TIMEOUT)
+                .map(response -> {
+                    List<String> setCookies = response.getHeaders().getOrEmpty(HttpHeaders.SET_COOKIE);
+                    String accessToken = cookieValue(setCookies, jwtCookieName);
+                    if (accessToken == null) {
+                        throw new IllegalStateException("Refresh response did not set " + jwtCookieName);
+                    }
+                    return new Refreshed(accessToken, setCookies);
+                })
+                .doOnNext(r -> refreshed.increment())
+                .doOnError(e -> {
+                    failed.increment();
+                    log.debug("Token refresh failed: {}", e.toString());
+                });
+    }
+
+    private static String cookieValue(List<String> setCookieHeaders, String name) {
+        for (String header : setCookieHeaders) {
+            for (java.net.HttpCookie cookie : java.net.HttpCookie.parse(header)) {
+                if (name.equals(cookie.getName()) && !cookie.getValue().isEmpty()) {
+                    return cookie.getValue();
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,133 @@
+package com.ubcmmhcsoftware.gateway.jwt;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.ubcmmhcsoftware.gateway.config.GatewayAppProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Arrays;
+
+/**
+ * Bounded cache of verified JWTs, keyed on the SHA-256 digest of the raw token.
+ * A hit skips the ES256 signature check and claim parsing; each entry is evicted at the token's exp.
+ * Hit/miss counts are published as cache.gets{cache="gateway.jwt.verified"}.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private static final String CACHE_NAME = "gateway.jwt.verified";
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private final JwtDecoder jwtDecoder;
+    private final Cache<TokenDigest, ForwardedClaims> cache;
+
+    @Autowired
+    public VerifiedTokenCache(JwtDecoder jwtDecoder, GatewayAppProperties gatewayAppProperties,
+                              MeterRegistry meterRegistry) {
+        this(jwtDecoder, gatewayAppProperties, meterRegistry, Clock.systemUTC());
+    }
+
+    /** The clock drives expiry, so it must be the wall clock that exp is measured against. */
+    VerifiedTokenCache(JwtDecoder jwtDecoder, GatewayAppProperties gatewayAppProperties,
+                       MeterRegistry meterRegistry, Clock clock) {
+        this.jwtDecoder = jwtDecoder;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(gatewayAppProperties.getJwtCacheMaxSize())
+                .expireAfter(new ExpireAtTokenExpiry())
+                .ticker(epochNanos(clock))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Returns the forwarded claims for a token, verifying it only on a cache miss.
+     *
+     * @throws JwtException if the token is invalid or expired
+     */
+    public ForwardedClaims resolve(String token) {
+        TokenDigest key = TokenDigest.of(token);
+        ForwardedClaims cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        ForwardedClaims claims = ForwardedClaims.from(jwtDecoder.decode(token));
+        if (claims.expiresAt() != null) {
+            cache.put(key, claims);
+        }
+        return claims;
+    }
+
+    /** Nanoseconds since the epoch, so expiry times line up with exp. */
+    private static Ticker epochNanos(Clock clock) {
+        return () -> epochNanos(clock.instant());
+    }
+
+    private static long epochNanos(Instant instant) {
+        return instant.getEpochSecond() * 1_000_000_000L + instant.getNano();
+    }
+
+    private static final class ExpireAtTokenExpiry implements Expiry<TokenDigest, ForwardedClaims> {
+
+        @Override
+        public long expireAfterCreate(TokenDigest key, ForwardedClaims value, long currentTime) {
+            return Math.max(0, epochNanos(value.expiresAt()) - currentTime);
+        }
+
+        @Override
+        public long expireAfterUpdate(TokenDigest key, ForwardedClaims value, long currentTime,
+                                      long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(TokenDigest key, ForwardedClaims value, long currentTime,
+                                    long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    private static final class TokenDigest {
+        private final byte[] digest;
+        private final int hash;
+
+        private TokenDigest(byte[] digest) {
+            this.digest = digest;
+            this.hash = Arrays.hashCode(digest);
+        }
+
+        static TokenDigest of(String token) {
+            return new TokenDigest(SHA_256.get().digest(token.getBytes(StandardCharsets.UTF_8)));
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof TokenDigest other && Arrays.equals(digest, other.digest);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.ubcmmhcsoftware.gateway.ratelimit;
+
+import com.ubcmmhcsoftware.gateway.config.GatewayAppProperties;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Finds the real client IP for rate-limit keys. X-Forwarded-For is only believed while
+ * the hop that sent it is a trusted proxy: starting from the peer address, entries are
+ * walked right to left and the first untrusted one is the client. The header is scanned
+ * in place (no split or substrings) and the result is normalized, so every spelling of
+ * an IPv6 address maps to the same bucket.
+ */
+@Component
+public class ClientIpResolver {
+
+    private static final String X_FORWARDED_FOR = "X-Forwarded-For";
+    private static final String UNKNOWN = "unknown";
+
+    private final CidrSet trustedProxies = new CidrSet();
+
+    public ClientIpResolver(GatewayAppProperties properties) {
+        properties.getTrustedProxies().forEach(trustedProxies::add);
+    }
+
+    public String resolve(ServerWebExchange exchange) {
+        ServerHttpRequest request = exchange.getRequest();
+        InetSocketAddress remote = request.getRemoteAddress();
+        if (remote == null || remote.getAddress() == null) {
+            return UNKNOWN;
+        }
+
+        long[] ip = new long[2];
+        load(remote.getAddress(), ip);
+        if (!trustedProxies.contains(ip[0], ip[1])) {
+            return IpAddresses.format(ip[0], ip[1]);
+        }
+
+        // Proxies append, so later header lines and later entries are closer to us
+        List<String> values = request.getHeaders().get(X_FORWARDED_FOR);
+        if (values != null) {
+            for (int v = values.size() - 1; v >= 0; v--) {
+                String header = values.get(v);
+                int end = header.length();
+                while (end >= 0) {
+                    int comma = header.lastIndexOf(',', end - 1);
+                    if (!IpAddresses.parse(header, comma + 1, end, ip)) {
+                        // Malformed hop: nothing further left can be trusted
+                        return IpAddresses.format(ip[0], ip[1]);
+                    }
+                    if (!trustedProxies.contains(ip[0], ip[1])) {
+                        return IpAddresses.format(ip[0], ip[1]);
+                    }
+                    end = comma;
+                }
+            }
+        }
+        // Every hop is a trusted proxy: the leftmost one is the best we know
+        return IpAddresses.format(ip[0], ip[1]);
+    }
+
+    private static void load(InetAddress address, long[] out) {
+        byte[] bytes = address.getAddress();
+        if (bytes.length == 4) {
+            out[0] = 0;
+            out[1] = IpAddresses.IPV4_MAPPED_PREFIX | (Integer.toUnsignedLong(toInt(bytes, 0)));
+        } else {
+            out[0] = ((long) toInt(bytes, 0) << 32) | Integer.toUnsignedLong(toInt(bytes, 4));
+            out[1] = ((long) toInt(bytes, 8) << 32) | Integer.toUnsignedLong(toInt(bytes, 12));
+        }
+    }
+
+    private static int toInt(byte[] b, int i) {
+        return (b[i] & 0xff) << 24 | (b[i + 1] & 0xff) << 16 | (b[i + 2] & 0xff) << 8 | (b[i + 3] & 0xff);
+    }
+
+    /**
+     * Binary prefix tree over 128-bit addresses, stored as parallel int arrays rather than
+     * node objects. A lookup walks at most 128 bits and stops at the first covering prefix.
+     */
+    static final class CidrSet {
+
+        private int[] zero = new int[64];
+        private int[] one = new int[64];
+        private boolean[] terminal = new boolean[64];
+        private int size = 1;
+
+        /**
+         * Adds "address/prefix"; a bare address is a single host. IPv4 prefixes are
+         * offset by 96 bits to match the IPv4-mapped form.
+         */
+        void add(String cidr) {
+            String value = cidr.trim();
+            if (value.isEmpty()) {
+                return;
+            }
+            int slash = value.indexOf('/');
+            long[] ip = new long[2];
+            if (!IpAddresses.parse(value, 0, slash < 0 ? value.length() : slash, ip)) {
+                throw new IllegalArgumentException("Invalid trusted proxy address: " + cidr);
+            }
+            int offset = IpAddresses.isIpv4(ip[0], ip[1]) && value.indexOf(':') < 0 ? 96 : 0;
+            int prefix;
+            try {
+                prefix = slash < 0 ? 128 - offset : Integer.parseInt(value.substring(slash + 1));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid trusted proxy prefix: " + cidr);
+            }
+            if (prefix < 0 || prefix > 128 - offset) {
+                throw new IllegalArgumentException("Invalid trusted proxy prefix: " + cidr);
+            }
+
+            int node = 0;
+            for (int bit = 0; bit < prefix + offset && !terminal[node]; bit++) {
+                boolean isZero = bit(ip, bit) == 0;
+                int child = isZero ? zero[node] : one[node];
+                if (child == 0) {
+                    // allocate() may grow the arrays, so index them only afterwards
+                    child = allocate();
+                    (isZero ? zero : one)[node] = child;
+                }
+                node = child;
+            }
+            terminal[node] = true;
+        }
+
+        boolean contains(long hi, long lo) {
+            int node = 0;
+            for (int bit = 0; bit < 128; bit++) {
+                if (terminal[node]) {
+                    return true;
+                }
+                long half = bit < 64 ? hi : lo;
+                node = ((half >>> (63 - (bit & 63))) & 1) == 0 ? zero[node] : one[node];
+                if (node == 0) {
+                    return false;
+                }
+            }
+            return terminal[node];
+        }
+
+        private static int bit(long[] ip, int bit) {
+            long half = bit < 64 ? ip[0] : ip[1];
+            return (int) (half >>> (63 - (bit & 63))) & 1;
+        }
+
+        private int allocate() {
+            if (size == terminal.length) {
+                zero = Arrays.copyOf(zero, size * 2);
+                one = Arrays.copyOf(one, size * 2);
+                terminal = Arrays.copyOf(terminal, size * 2);
+            }
+            return size++;
+        }
+    }
+}
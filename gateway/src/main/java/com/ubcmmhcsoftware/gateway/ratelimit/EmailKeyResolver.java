@@ -0,0 +1,68 @@
+package com.ubcmmhcsoftware.gateway.ratelimit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+
+/**
+ * Keys requests by a SHA-256 of the normalized {@code email} field in the JSON body, so one
+ * address gets one budget no matter how many IPs send for it. The route must run
+ * {@code CacheRequestBody} (bodyClass {@code java.lang.String}) before the rate limiter.
+ * Requests without a readable email fall back to the given resolver.
+ */
+@Slf4j
+public class EmailKeyResolver implements KeyResolver {
+
+    private static final String KEY_PREFIX = "email:";
+
+    private final ObjectMapper objectMapper;
+    private final KeyResolver fallback;
+
+    public EmailKeyResolver(ObjectMapper objectMapper, KeyResolver fallback) {
+        this.objectMapper = objectMapper;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public Mono<String> resolve(ServerWebExchange exchange) {
+        Object body = exchange.getAttribute(ServerWebExchangeUtils.CACHED_REQUEST_BODY_ATTR);
+        String email = body instanceof String json ? readEmail(json) : null;
+        if (email == null) {
+            return fallback.resolve(exchange);
+        }
+        return Mono.just(KEY_PREFIX + sha256Hex(email));
+    }
+
+    private String readEmail(String json) {
+        try {
+            JsonNode email = objectMapper.readTree(json).get("email");
+            if (email == null || !email.isTextual()) {
+                return null;
+            }
+            String normalized = email.asText().trim().toLowerCase(Locale.ROOT);
+            return normalized.isEmpty() ? null : normalized;
+        } catch (Exception e) {
+            log.debug("Could not read email from request body: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static String sha256Hex(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package com.ubcmmhcsoftware.gateway.ratelimit;
+
+/**
+ * Parses and formats IP addresses as 128-bit values held in two longs, working on a
+ * range of a header string so no substrings are cut. IPv4 addresses are stored
+ * IPv4-mapped ({@code ::ffff:a.b.c.d}) so one representation covers both families.
+ */
+final class IpAddresses {
+
+    static final long IPV4_MAPPED_PREFIX = 0x0000_ffffL << 32;
+
+    private IpAddresses() {
+    }
+
+    /**
+     * Parses the address in {@code s[start, end)} into {@code out[0]} (high bits) and
+     * {@code out[1]} (low bits). Surrounding whitespace, IPv6 brackets, zone ids and
+     * ports are ignored. Returns false, leaving {@code out} untouched, if it is not an address.
+     */
+    static boolean parse(CharSequence s, int start, int end, long[] out) {
+        while (start < end && isWhitespace(s.charAt(start))) {
+            start++;
+        }
+        while (end > start && isWhitespace(s.charAt(end - 1))) {
+            end--;
+        }
+        if (start == end) {
+            return false;
+        }
+
+        int colons = 0;
+        int firstColon = -1;
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (c == ':') {
+                if (colons++ == 0) {
+                    firstColon = i;
+                }
+            } else if (c == ']' || c == '%') {
+                // Bracketed "[v6]:port" or a zone id: the address ends here
+                if (s.charAt(start) == '[') {
+                    start++;
+                }
+                end = i;
+                break;
+            }
+        }
+        if (s.charAt(start) == '[') {
+            return false;
+        }
+
+        if (colons <= 1) {
+            // Plain IPv4, or IPv4 with ":port"
+            long v4 = parseIpv4(s, start, colons == 1 ? firstColon : end);
+            if (v4 < 0) {
+                return false;
+            }
+            out[0] = 0;
+            out[1] = IPV4_MAPPED_PREFIX | v4;
+            return true;
+        }
+        return parseIpv6(s, start, end, out);
+    }
+
+    /**
+     * Formats an address canonically: dotted quad for IPv4 (and IPv4-mapped), RFC 5952 for IPv6.
+     */
+    static String format(long hi, long lo) {
+        if (isIpv4(hi, lo)) {
+            return ((lo >>> 24) & 0xff) + "." + ((lo >>> 16) & 0xff) + "." + ((lo >>> 8) & 0xff) + "." + (lo & 0xff);
+        }
+
+        // Longest run of two or more zero groups is written as "::" (first one on a tie)
+        int bestStart = -1;
+        int bestLength = 1;
+        int runStart = -1;
+        for (int g = 0; g <= 8; g++) {
+            if (g < 8 && group(hi, lo, g) == 0) {
+                if (runStart < 0) {
+                    runStart = g;
+                }
+            } else if (runStart >= 0) {
+                if (g - runStart > bestLength) {
+                    bestStart = runStart;
+                    bestLength = g - runStart;
+                }
+                runStart = -1;
+            }
+        }
+
+        StringBuilder sb = new StringBuilder(39);
+        for (int g = 0; g < 8; g++) {
+            if (g == bestStart) {
+                sb.append("::");
+                g += bestLength - 1;
+                continue;
+            }
+            if (sb.length() > 0 && sb.charAt(sb.length() - 1) != ':') {
+                sb.append(':');
+            }
+            sb.append(Integer.toHexString(group(hi, lo, g)));
+        }
+        return sb.toString();
+    }
+
+    static boolean isIpv4(long hi, long lo) {
+        return hi == 0 && (lo & 0xffff_ffff_0000_0000L) == IPV4_MAPPED_PREFIX;
+    }
+
+    private static int group(long hi, long lo, int g) {
+        long half = g < 4 ? hi : lo;
+        return (int) (half >>> (48 - 16 * (g & 3))) & 0xffff;
+    }
+
+    /**
+     * Returns the address as an unsigned 32-bit value, or -1 if malformed.
+     */
+    private static long parseIpv4(CharSequence s, int start, int end) {
+        long value = 0;
+        int octets = 0;
+        int i = start;
+        while (i < end) {
+            int octet = 0;
+            int digits = 0;
+            char c;
+            while (i < end && (c = s.charAt(i)) >= '0' && c <= '9') {
+                octet = octet * 10 + (c - '0');
+                if (++digits > 3) {
+                    return -1;
+                }
+                i++;
+            }
+            if (digits == 0 || octet > 255) {
+                return -1;
+            }
+            value = (value << 8) | octet;
+            octets++;
+            if (i < end) {
+                if (s.charAt(i) != '.' || octets == 4) {
+                    return -1;
+                }
+                i++;
+                if (i == end) {
+                    return -1;
+                }
+            }
+        }
+        return octets == 4 ? value : -1;
+    }
+
+    private static boolean parseIpv6(CharSequence s, int start, int end, long[] out) {
+        // Groups before "::" go to head, groups after it to tail; head is shifted into place at the end
+        long headHi = 0, headLo = 0, tailHi = 0, tailLo = 0;
+        int headGroups = 0, tailGroups = 0;
+        boolean compressed = false;
+
+        int i = start;
+        if (s.charAt(i) == ':') {
+            if (i + 1 >= end || s.charAt(i + 1) != ':') {
+                return false;
+            }
+            compressed = true;
+            i += 2;
+        }
+
+        while (i < end) {
+            int groupStart = i;
+            int value = 0;
+            int digits = 0;
+            int d;
+            while (i < end && (d = hexDigit(s.charAt(i))) >= 0) {
+                value = (value << 4) | d;
+                digits++;
+                i++;
+            }
+
+            if (i < end && s.charAt(i) == '.') {
+                // Trailing embedded IPv4 fills the last two groups
+                long v4 = parseIpv4(s, groupStart, end);
+                if (v4 < 0 || headGroups + tailGroups > 6) {
+                    return false;
+                }
+                if (compressed) {
+                    tailHi = (tailHi << 32) | (tailLo >>> 32);
+                    tailLo = (tailLo << 32) | v4;
+                    tailGroups += 2;
+                } else {
+                    headHi = (headHi << 32) | (headLo >>> 32);
+                    headLo = (headLo << 32) | v4;
+                    headGroups += 2;
+                }
+                i = end;
+                break;
+            }
+            if (digits == 0 || digits > 4 || headGroups + tailGroups == 8) {
+                return false;
+            }
+            if (compressed) {
+                tailHi = (tailHi << 16) | (tailLo >>> 48);
+                tailLo = (tailLo << 16) | value;
+                tailGroups++;
+            } else {
+                headHi = (headHi << 16) | (headLo >>> 48);
+                headLo = (headLo << 16) | value;
+                headGroups++;
+            }
+
+            if (i == end) {
+                break;
+            }
+            if (s.charAt(i++) != ':' || i == end) {
+                return false;
+            }
+            if (s.charAt(i) == ':') {
+                if (compressed) {
+                    return false;
+                }
+                compressed = true;
+                i++;
+            }
+        }
+
+        int groups = headGroups + tailGroups;
+        if (compressed ? groups > 7 : groups != 8) {
+            return false;
+        }
+        for (int g = headGroups; g < 8; g++) {
+            headHi = (headHi << 16) | (headLo >>> 48);
+            headLo <<= 16;
+        }
+        out[0] = headHi | tailHi;
+        out[1] = headLo | tailLo;
+        return true;
+    }
+
+    private static int hexDigit(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t';
+    }
+}
@@ -0,0 +1,234 @@
+package com.ubcmmhcsoftware.gateway.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongFunction;
+
+/**
+ * Two-tier rate limiter. Each pod leases a batch of permits per key from a Redis token
+ * bucket and spends them locally with a CAS, so most decisions never leave the process.
+ * Callers that find the lease spent share one Redis request, and permits left in an expired
+ * lease are credited back to the bucket, so leasing never takes more than the pod uses.
+ * When Redis errors or exceeds {@code redisTimeout}, a per-pod {@link LocalTokenBucket}
+ * with the same rate and burst takes over until Redis answers again.
+ *
+ * <p>Route args use the {@code leased-rate-limiter.} prefix, e.g.
+ * {@code leased-rate-limiter.replenishRate: 100}.
+ */
+@Slf4j
+public class LeasedRateLimiter extends AbstractRateLimiter<LeasedRateLimiter.Config> {
+
+    public static final String CONFIGURATION_PROPERTY_NAME = "leased-rate-limiter";
+    public static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+    public static final String REPLENISH_RATE_HEADER = "X-RateLimit-Replenish-Rate";
+    public static final String BURST_CAPACITY_HEADER = "X-RateLimit-Burst-Capacity";
+
+    private static final String METRIC_NAME = "gateway.ratelimit.decisions";
+    private static final long REDIS_BACKOFF_NANOS = Duration.ofSeconds(1).toNanos();
+    private static final int MAX_RENEWALS_PER_REQUEST = 3;
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final RedisScript<List<Long>> leaseScript;
+    private final Cache<String, KeyState> states;
+
+    private final Counter localDecisions;
+    private final Counter leaseDecisions;
+    private final Counter fallbackDecisions;
+
+    // After a Redis failure, skip it entirely until this time so requests don't each wait for a timeout
+    private volatile long redisRetryAtNanos = System.nanoTime();
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public LeasedRateLimiter(ReactiveStringRedisTemplate redisTemplate, ConfigurationService configurationService,
+                             MeterRegistry meterRegistry) {
+        super(Config.class, CONFIGURATION_PROPERTY_NAME, configurationService);
+        this.redisTemplate = redisTemplate;
+        this.leaseScript = (RedisScript) RedisScript.of(new ClassPathResource("scripts/leased_rate_limiter.lua"), List.class);
+        this.states = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterAccess(Duration.ofMinutes(10))
+                .build();
+        this.localDecisions = Counter.builder(METRIC_NAME).tag("source", "local").register(meterRegistry);
+        this.leaseDecisions = Counter.builder(METRIC_NAME).tag("source", "redis").register(meterRegistry);
+        this.fallbackDecisions = Counter.builder(METRIC_NAME).tag("source", "fallback").register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        Config config = getConfig().get(routeId);
+        if (config == null) {
+            throw new IllegalArgumentException("No " + CONFIGURATION_PROPERTY_NAME + " configuration found for route " + routeId);
+        }
+
+        String key = routeId + ":" + id;
+        KeyState state = states.get(key, k -> new KeyState(config, System.nanoTime()));
+        return decide(key, config, state, 0);
+    }
+
+    private Mono<Response> decide(String key, Config config, KeyState state, int renewals) {
+        long now = System.nanoTime();
+        long remaining = state.tryAcquireLeased(now);
+        if (remaining >= 0) {
+            (renewals == 0 ? localDecisions : leaseDecisions).increment();
+            return Mono.just(response(true, remaining, config));
+        }
+        if (state.isDenied(now)) {
+            (renewals == 0 ? localDecisions : leaseDecisions).increment();
+            return Mono.just(response(false, 0, config));
+        }
+        if (redisRetryAtNanos - now > 0) {
+            return Mono.just(fallback(state, config));
+        }
+        if (renewals >= MAX_RENEWALS_PER_REQUEST) {
+            // Lost the race for several leases in a row; Redis is granting, just not enough for everyone
+            leaseDecisions.increment();
+            return Mono.just(response(false, 0, config));
+        }
+
+        // Concurrent callers for this key share one Redis round-trip, then take permits from the new lease
+        return state.renewal(returned -> lease(key, config, returned).timeout(config.getRedisTimeout()), config)
+                .flatMap(granted -> decide(key, config, state, renewals + 1))
+                .onErrorResume(e -> {
+                    log.debug("Rate limit lease failed for {}, using local buckets: {}", key, e.toString());
+                    redisRetryAtNanos = System.nanoTime() + REDIS_BACKOFF_NANOS;
+                    return Mono.just(fallback(state, config));
+                });
+    }
+
+    private Response fallback(KeyState state, Config config) {
+        fallbackDecisions.increment();
+        return response(state.fallback.tryAcquire(System.nanoTime()), -1, config);
+    }
+
+    private Mono<Long> lease(String key, Config config, long returned) {
+        // Hash tag keeps both keys in the same cluster slot
+        String prefix = "leased_rate_limiter.{" + key + "}.";
+        List<String> keys = List.of(prefix + "tokens", prefix + "timestamp");
+        List<String> args = List.of(
+                Integer.toString(config.getReplenishRate()),
+                Integer.toString(config.getBurstCapacity()),
+                Integer.toString(config.getLeaseSize()),
+                Long.toString(returned));
+
+        return redisTemplate.execute(leaseScript, keys, args)
+                .next()
+                .map(result -> result.get(0));
+    }
+
+    private Response response(boolean allowed, long remaining, Config config) {
+        return new Response(allowed, Map.of(
+                REMAINING_HEADER, Long.toString(remaining),
+                REPLENISH_RATE_HEADER, Integer.toString(config.getReplenishRate()),
+                BURST_CAPACITY_HEADER, Integer.toString(config.getBurstCapacity())));
+    }
+
+    /**
+     * Per-key state: the current lease of Redis permits, the in-flight lease request (if any)
+     * and the Redis-outage fallback bucket.
+     */
+    private static final class KeyState {
+
+        private volatile Lease lease = Lease.EMPTY;
+        private volatile long deniedUntilNanos;
+        private volatile boolean denied;
+        private final AtomicReference<Mono<Long>> renewal = new AtomicReference<>();
+        private final LocalTokenBucket fallback;
+
+        KeyState(Config config, long nowNanos) {
+            this.fallback = new LocalTokenBucket(config.getReplenishRate(), config.getBurstCapacity(), nowNanos);
+        }
+
+        /**
+         * Takes one leased permit; returns the permits left, or -1 if the lease is spent or expired.
+         */
+        long tryAcquireLeased(long nowNanos) {
+            Lease current = lease;
+            if (current == Lease.EMPTY || nowNanos - current.expiresAtNanos >= 0) {
+                return -1;
+            }
+            long left = current.permits.decrementAndGet();
+            return left >= 0 ? left : -1;
+        }
+
+        /**
+         * The lease request for this key, started by the first caller and shared by everyone who
+         * arrives before it completes. The request hands back whatever an expired lease left
+         * unused, and installs the new lease (or a denial) exactly once.
+         */
+        Mono<Long> renewal(LongFunction<Mono<Long>> leaseCall, Config config) {
+            Mono<Long> inFlight = renewal.get();
+            if (inFlight != null) {
+                return inFlight;
+            }
+            AtomicReference<Mono<Long>> self = new AtomicReference<>();
+            Mono<Long> candidate = Mono.defer(() -> leaseCall.apply(takeUnused()))
+                    .doOnNext(granted -> install(granted, config))
+                    .doFinally(signal -> renewal.compareAndSet(self.get(), null))
+                    .cache();
+            self.set(candidate);
+            return renewal.compareAndSet(null, candidate) ? candidate : renewal(leaseCall, config);
+        }
+
+        private long takeUnused() {
+            return Math.max(0, lease.permits.getAndSet(0));
+        }
+
+        private void install(long granted, Config config) {
+            long now = System.nanoTime();
+            if (granted <= 0) {
+                // Redis bucket is empty: deny locally until at least one token refills
+                deniedUntilNanos = now + 1_000_000_000L / config.getReplenishRate();
+                denied = true;
+                return;
+            }
+            lease = new Lease(granted, now + config.getLeaseTtl().toNanos());
+            denied = false;
+        }
+
+        boolean isDenied(long nowNanos) {
+            return denied && deniedUntilNanos - nowNanos > 0;
+        }
+    }
+
+    private static final class Lease {
+        static final Lease EMPTY = new Lease(0, 0);
+
+        final AtomicLong permits;
+        final long expiresAtNanos;
+
+        Lease(long permits, long expiresAtNanos) {
+            this.permits = new AtomicLong(permits);
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+
+    @Getter
+    @Setter
+    public static class Config {
+        private int replenishRate = 1;
+        private int burstCapacity = 1;
+        /** Permits taken from Redis per round-trip. */
+        private int leaseSize = 10;
+        /** A lease expires after this, bounding over-admission across pods; unused permits go back to Redis with the next lease. */
+        private Duration leaseTtl = Duration.ofSeconds(1);
+        /** Slower Redis answers are treated as failures and decided by the local bucket. */
+        private Duration redisTimeout = Duration.ofMillis(50);
+    }
+}
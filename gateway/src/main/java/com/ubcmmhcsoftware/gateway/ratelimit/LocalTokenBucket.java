@@ -0,0 +1,36 @@
+package com.ubcmmhcsoftware.gateway.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket using the generic cell rate algorithm: the whole state is one
+ * "theoretical arrival time" updated by CAS. Allows {@code burstCapacity} requests at
+ * once and {@code replenishRate} per second after that.
+ */
+final class LocalTokenBucket {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final AtomicLong theoreticalArrival;
+
+    LocalTokenBucket(int replenishRate, int burstCapacity, long nowNanos) {
+        this.emissionIntervalNanos = NANOS_PER_SECOND / Math.max(1, replenishRate);
+        this.burstToleranceNanos = emissionIntervalNanos * Math.max(0, burstCapacity - 1);
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+    }
+
+    boolean tryAcquire(long nowNanos) {
+        while (true) {
+            long tat = theoreticalArrival.get();
+            long start = tat - nowNanos > 0 ? tat : nowNanos;
+            if (start - burstToleranceNanos - nowNanos > 0) {
+                return false;
+            }
+            if (theoreticalArrival.compareAndSet(tat, start + emissionIntervalNanos)) {
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+-- Token bucket shared by all gateway pods. Grants up to ARGV[3] permits at once
+-- (a lease) instead of one, returning { granted, tokens_left }. ARGV[4] permits left
+-- unused from the caller's previous lease are put back first (capped at capacity).
+redis.replicate_commands()
+
+local tokens_key = KEYS[1]
+local timestamp_key = KEYS[2]
+
+local rate = tonumber(ARGV[1])
+local capacity = tonumber(ARGV[2])
+local requested = tonumber(ARGV[3])
+local returned = tonumber(ARGV[4]) or 0
+local time = redis.call('TIME')
+local now = tonumber(time[1]) + tonumber(time[2]) / 1000000
+
+local fill_time = capacity / rate
+local ttl = math.max(1, math.floor(fill_time * 2))
+
+local last_tokens = tonumber(redis.call("get", tokens_key)) or capacity
+local last_refreshed = tonumber(redis.call("get", timestamp_key)) or 0
+
+local delta = math.max(0, now - last_refreshed)
+local filled_tokens = math.min(capacity, last_tokens + (delta * rate) + returned)
+local granted = math.floor(math.min(filled_tokens, requested))
+local new_tokens = filled_tokens - granted
+
+redis.call("setex", tokens_key, ttl, new_tokens)
+redis.call("setex", timestamp_key, ttl, now)
+
+return { granted, math.floor(new_tokens) }
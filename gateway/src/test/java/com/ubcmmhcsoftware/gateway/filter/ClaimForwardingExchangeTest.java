@@ -0,0 +1,70 @@
+package com.ubcmmhcsoftware.gateway.filter;
+
+import com.ubcmmhcsoftware.gateway.jwt.ForwardedClaims;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ClaimForwardingExchangeTest {
+
+    private final ForwardedClaims claims = new ForwardedClaims("user-1", "a@example.org", "ROLE_USER",
+            "jti", Instant.now(), Instant.now().plusSeconds(900));
+
+    private final MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/user/me")
+            .header(HttpHeaders.ACCEPT, "application/json")
+            .header(HttpHeaders.AUTHORIZATION, "Bearer old")
+            .header("x-user-id", "spoofed"));
+
+    @Test
+    void claimHeadersShadowClientSuppliedOnes() {
+        HttpHeaders headers = new ClaimForwardingExchange(exchange, claims).getRequest().getHeaders();
+
+        assertThat(headers.getFirst(ForwardedClaims.X_USER_ID)).isEqualTo("user-1");
+        assertThat(headers.get("X-USER-ID")).containsExactly("user-1");
+        assertThat(headers.getFirst(ForwardedClaims.X_USER_EMAIL)).isEqualTo("a@example.org");
+        assertThat(headers.getFirst(ForwardedClaims.X_USER_ROLES)).isEqualTo("ROLE_USER");
+        assertThat(headers.getFirst(HttpHeaders.ACCEPT)).isEqualTo("application/json");
+        assertThat(headers.getFirst(HttpHeaders.AUTHORIZATION)).isEqualTo("Bearer old");
+    }
+
+    @Test
+    void iterationListsEachHeaderOnceWithOverlaidValues() {
+        HttpHeaders headers = new ClaimForwardingExchange(exchange, claims).getRequest().getHeaders();
+
+        Map<String, List<String>> seen = new LinkedHashMap<>();
+        headers.forEach((name, values) -> seen.merge(name.toLowerCase(), values, (a, b) -> {
+            throw new AssertionError("header listed twice: " + name);
+        }));
+
+        assertThat(seen).containsEntry("x-user-id", List.of("user-1"))
+                .containsEntry("accept", List.of("application/json"))
+                .containsKeys("x-user-email", "x-user-roles", "authorization");
+        assertThat(headers.size()).isEqualTo(seen.size());
+        assertThat(headers.toSingleValueMap()).hasSize(seen.size());
+    }
+
+    @Test
+    void refreshedAccessTokenReplacesAuthorization() {
+        HttpHeaders headers = new ClaimForwardingExchange(exchange, claims, "new").getRequest().getHeaders();
+
+        assertThat(headers.get(HttpHeaders.AUTHORIZATION)).containsExactly("Bearer new");
+        assertThat(headers.size()).isEqualTo(5);
+    }
+
+    @Test
+    void overlayIsReadOnly() {
+        HttpHeaders headers = new ClaimForwardingExchange(exchange, claims).getRequest().getHeaders();
+
+        assertThatThrownBy(() -> headers.set(ForwardedClaims.X_USER_ID, "x"))
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+}
@@ -0,0 +1,122 @@
+package com.ubcmmhcsoftware.gateway.filter;
+
+import com.ubcmmhcsoftware.gateway.config.GatewayAppProperties;
+import com.ubcmmhcsoftware.gateway.config.PathPolicyProperties;
+import com.ubcmmhcsoftware.gateway.jwt.ForwardedClaims;
+import com.ubcmmhcsoftware.gateway.jwt.RevocationList;
+import com.ubcmmhcsoftware.gateway.jwt.TokenRefresher;
+import com.ubcmmhcsoftware.gateway.jwt.VerifiedTokenCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpCookie;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class JwtClaimForwardingGlobalFilterTest {
+
+    private final VerifiedTokenCache verifiedTokenCache = mock(VerifiedTokenCache.class);
+    private final TokenRefresher tokenRefresher = mock(TokenRefresher.class);
+    private final JwtClaimForwardingGlobalFilter filter = new JwtClaimForwardingGlobalFilter(verifiedTokenCache,
+            tokenRefresher, mock(RevocationList.class), pathClassifier(), properties());
+    private final AtomicReference<ServerWebExchange> forwarded = new AtomicReference<>();
+    private final GatewayFilterChain chain = exchange -> {
+        forwarded.set(exchange);
+        return Mono.empty();
+    };
+
+    private static PathClassifier pathClassifier() {
+        PathPolicyProperties properties = new PathPolicyProperties();
+        properties.setPublicPaths(List.of("/api/auth/**", "/api/membership/check"));
+        properties.setProtectedPaths(List.of("/api/user/**"));
+        return new PathClassifier(properties);
+    }
+
+    private static GatewayAppProperties properties() {
+        GatewayAppProperties properties = new GatewayAppProperties();
+        ReflectionTestUtils.setField(properties, "jwtCookieName", "JWT");
+        ReflectionTestUtils.setField(properties, "refreshTokenCookieName", "REFRESH");
+        ReflectionTestUtils.setField(properties, "jwtRefreshBeforeExpiry", Duration.ofMinutes(1));
+        return properties;
+    }
+
+    @Test
+    void publicPathsNeverRefresh() {
+        MockServerWebExchange exchange = exchange("/api/membership/check", "garbage");
+
+        filter.filter(exchange, chain).block();
+
+        verify(tokenRefresher, never()).refresh(anyString());
+        assertThat(forwarded.get()).isSameAs(exchange);
+    }
+
+    @Test
+    void otherPathsNeverRefresh() {
+        filter.filter(exchange("/api/newsletter/unsubscribe", "garbage"), chain).block();
+
+        verify(tokenRefresher, never()).refresh(anyString());
+        assertThat(forwarded.get()).isNotNull();
+    }
+
+    @Test
+    void protectedPathRefreshesAndForwardsTheNewToken() {
+        when(tokenRefresher.refresh("refresh-1")).thenReturn(Mono.just(
+                new TokenRefresher.Refreshed("access-2", List.of("JWT=access-2; Path=/; HttpOnly"))));
+        when(verifiedTokenCache.resolve("access-2")).thenReturn(claims(Instant.now().plusSeconds(900)));
+        MockServerWebExchange exchange = exchange("/api/user/info", "refresh-1");
+
+        filter.filter(exchange, chain).block();
+
+        assertThat(forwarded.get().getRequest().getHeaders().getFirst(ForwardedClaims.X_USER_ID)).isEqualTo("user-1");
+        assertThat(exchange.getResponse().getHeaders().get(HttpHeaders.SET_COOKIE))
+                .containsExactly("JWT=access-2; Path=/; HttpOnly");
+    }
+
+    @Test
+    void protectedPathWithAFailedRefreshIsUnauthorized() {
+        when(tokenRefresher.refresh("garbage")).thenReturn(Mono.error(new IllegalStateException("401")));
+        MockServerWebExchange exchange = exchange("/api/user/info", "garbage");
+
+        filter.filter(exchange, chain).block();
+
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(forwarded.get()).isNull();
+    }
+
+    @Test
+    void validTokenOnAProtectedPathSkipsTheRefresh() {
+        when(verifiedTokenCache.resolve("access-1")).thenReturn(claims(Instant.now().plusSeconds(900)));
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/user/info")
+                .cookie(new HttpCookie("JWT", "access-1"), new HttpCookie("REFRESH", "refresh-1")));
+
+        filter.filter(exchange, chain).block();
+
+        verify(tokenRefresher, never()).refresh(anyString());
+        assertThat(forwarded.get().getRequest().getHeaders().getFirst(ForwardedClaims.X_USER_ID)).isEqualTo("user-1");
+    }
+
+    private static MockServerWebExchange exchange(String path, String refreshCookie) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get(path)
+                .cookie(new HttpCookie("REFRESH", refreshCookie)));
+    }
+
+    private static ForwardedClaims claims(Instant expiresAt) {
+        return new ForwardedClaims("user-1", "a@example.org", "ROLE_USER", "jti-1", Instant.now(), expiresAt);
+    }
+}
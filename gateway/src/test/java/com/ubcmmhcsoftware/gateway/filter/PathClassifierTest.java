@@ -0,0 +1,74 @@
+package com.ubcmmhcsoftware.gateway.filter;
+
+import com.ubcmmhcsoftware.gateway.config.PathPolicyProperties;
+import com.ubcmmhcsoftware.gateway.filter.PathClassifier.PathAccess;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PathClassifierTest {
+
+    private static PathClassifier classifier(List<String> publicPaths, List<String> protectedPaths) {
+        PathPolicyProperties properties = new PathPolicyProperties();
+        properties.setPublicPaths(publicPaths);
+        properties.setProtectedPaths(protectedPaths);
+        return new PathClassifier(properties);
+    }
+
+    private final PathClassifier classifier = classifier(
+            List.of("/api/auth/**", "/api/membership/register", "/api/membership/check", "/error"),
+            List.of("/api/user/**", "/api/membership/status**", "/api/admin/**"));
+
+    @Test
+    void prefixPatternsMatchEverythingBelowThem() {
+        assertThat(classifier.classify("/api/auth/login-user")).isEqualTo(PathAccess.PUBLIC);
+        assertThat(classifier.classify("/api/auth/")).isEqualTo(PathAccess.PUBLIC);
+        assertThat(classifier.classify("/api/user/me/roles")).isEqualTo(PathAccess.PROTECTED);
+        assertThat(classifier.classify("/api/membership/status")).isEqualTo(PathAccess.PROTECTED);
+        assertThat(classifier.classify("/api/membership/status/abc")).isEqualTo(PathAccess.PROTECTED);
+    }
+
+    @Test
+    void prefixPatternsNeedTheWholePrefix() {
+        assertThat(classifier.classify("/api/auth")).isEqualTo(PathAccess.OTHER);
+        assertThat(classifier.classify("/api/use")).isEqualTo(PathAccess.OTHER);
+        assertThat(classifier.classify("/api/authx/login")).isEqualTo(PathAccess.OTHER);
+    }
+
+    @Test
+    void exactPatternsMatchOnlyTheWholePath() {
+        assertThat(classifier.classify("/api/membership/register")).isEqualTo(PathAccess.PUBLIC);
+        assertThat(classifier.classify("/api/membership/register/")).isEqualTo(PathAccess.OTHER);
+        assertThat(classifier.classify("/api/membership/registe")).isEqualTo(PathAccess.OTHER);
+        assertThat(classifier.classify("/error")).isEqualTo(PathAccess.PUBLIC);
+        assertThat(classifier.classify("/errors")).isEqualTo(PathAccess.OTHER);
+    }
+
+    @Test
+    void unknownPathsAreOther() {
+        assertThat(classifier.classify("/api/newsletter/add-email")).isEqualTo(PathAccess.OTHER);
+        assertThat(classifier.classify("")).isEqualTo(PathAccess.OTHER);
+        assertThat(classifier.classify("/")).isEqualTo(PathAccess.OTHER);
+    }
+
+    @Test
+    void publicWinsOverProtected() {
+        PathClassifier overlapping = classifier(
+                List.of("/api/membership/check", "/api/open/**"),
+                List.of("/api/membership/**", "/api/**"));
+
+        assertThat(overlapping.classify("/api/membership/check")).isEqualTo(PathAccess.PUBLIC);
+        assertThat(overlapping.classify("/api/membership/checkout")).isEqualTo(PathAccess.PROTECTED);
+        assertThat(overlapping.classify("/api/open/x")).isEqualTo(PathAccess.PUBLIC);
+    }
+
+    @Test
+    void rootPrefixMatchesEverything() {
+        PathClassifier all = classifier(List.of(), List.of("**"));
+
+        assertThat(all.classify("")).isEqualTo(PathAccess.PROTECTED);
+        assertThat(all.classify("/anything")).isEqualTo(PathAccess.PROTECTED);
+    }
+}
@@ -0,0 +1,62 @@
+package com.ubcmmhcsoftware.gateway.jwt;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloomFilterTest {
+
+    @Test
+    void neverMissesAnAddedKey() {
+        BloomFilter filter = new BloomFilter(10_000);
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            String key = UUID.randomUUID().toString();
+            keys.add(key);
+            filter.add(key);
+        }
+        assertThat(keys).allMatch(filter::mightContain);
+    }
+
+    @Test
+    void falsePositiveRateStaysNearOnePercentAtCapacity() {
+        BloomFilter filter = new BloomFilter(10_000);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add(UUID.randomUUID().toString());
+        }
+        int hits = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain(UUID.randomUUID().toString())) {
+                hits++;
+            }
+        }
+        assertThat(hits / 100_000.0).isLessThan(0.02);
+    }
+
+    @Test
+    void similarKeysAreTellApart() {
+        // jtis are random, but user ids and sequential ids differ in a few chars only
+        BloomFilter filter = new BloomFilter(1_000);
+        for (int i = 0; i < 1_000; i++) {
+            filter.add("user-" + i);
+        }
+        int hits = 0;
+        for (int i = 1_000; i < 11_000; i++) {
+            if (filter.mightContain("user-" + i)) {
+                hits++;
+            }
+        }
+        assertThat(hits / 10_000.0).isLessThan(0.02);
+    }
+
+    @Test
+    void emptyFilterContainsNothing() {
+        BloomFilter filter = new BloomFilter(0);
+        assertThat(filter.mightContain("")).isFalse();
+        assertThat(filter.mightContain("jti")).isFalse();
+    }
+}
@@ -0,0 +1,76 @@
+package com.ubcmmhcsoftware.gateway.jwt;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ForwardedClaimsTest {
+
+    private static ForwardedClaims from(Map<String, Object> claims) {
+        Jwt.Builder jwt = Jwt.withTokenValue("token")
+                .header("alg", "ES256")
+                .subject("user-1")
+                .jti("jti-1")
+                .issuedAt(Instant.ofEpochSecond(1_000))
+                .expiresAt(Instant.ofEpochSecond(1_900));
+        claims.forEach(jwt::claim);
+        return ForwardedClaims.from(jwt.build());
+    }
+
+    @Test
+    void decodesTheRoleMaskInOrdinalOrder() {
+        assertThat(from(Map.of("rl", 0)).roles()).isEmpty();
+        assertThat(from(Map.of("rl", 1)).roles()).isEqualTo("ROLE_USER");
+        assertThat(from(Map.of("rl", 0b01001)).roles()).isEqualTo("ROLE_USER,ROLE_ADMIN");
+        assertThat(from(Map.of("rl", 0b11111)).roles())
+                .isEqualTo("ROLE_USER,ROLE_BLOG_EDITOR,ROLE_BLOG_MANAGER,ROLE_ADMIN,ROLE_SUPERADMIN");
+    }
+
+    @Test
+    void dropsUnknownRoleBits() {
+        assertThat(from(Map.of("rl", 0b100001)).roles()).isEqualTo("ROLE_USER");
+        assertThat(from(Map.of("rl", -1L)).roles())
+                .isEqualTo("ROLE_USER,ROLE_BLOG_EDITOR,ROLE_BLOG_MANAGER,ROLE_ADMIN,ROLE_SUPERADMIN");
+        assertThat(from(Map.of("rl", 1L << 40 | 8)).roles()).isEqualTo("ROLE_ADMIN");
+    }
+
+    @Test
+    void readsTheCompactEmailClaim() {
+        ForwardedClaims claims = from(Map.of("rl", 1, "em", "a@example.org"));
+
+        assertThat(claims.email()).isEqualTo("a@example.org");
+        assertThat(claims.userId()).isEqualTo("user-1");
+        assertThat(claims.tokenId()).isEqualTo("jti-1");
+        assertThat(claims.issuedAt()).isEqualTo(Instant.ofEpochSecond(1_000));
+        assertThat(claims.expiresAt()).isEqualTo(Instant.ofEpochSecond(1_900));
+    }
+
+    @Test
+    void fallsBackToTheOlderClaims() {
+        ForwardedClaims claims = from(Map.of("email", "a@example.org", "roles", List.of("USER", "ROLE_ADMIN")));
+
+        assertThat(claims.email()).isEqualTo("a@example.org");
+        assertThat(claims.roles()).isEqualTo("ROLE_USER,ROLE_ADMIN");
+        assertThat(from(Map.of("email", "a@example.org")).roles()).isEmpty();
+    }
+
+    @Test
+    void headerValuesMatchNamesCaseInsensitively() {
+        ForwardedClaims claims = from(Map.of("rl", 1, "em", "a@example.org"));
+
+        assertThat(claims.headerValues("x-user-id")).containsExactly("user-1");
+        assertThat(claims.headerValues(ForwardedClaims.X_USER_EMAIL)).containsExactly("a@example.org");
+        assertThat(claims.headerValues("X-USER-ROLES")).containsExactly("ROLE_USER");
+        assertThat(claims.headerValues("Authorization")).isNull();
+    }
+
+    @Test
+    void missingEmailIsForwardedEmpty() {
+        assertThat(from(Map.of("rl", 1)).headerValues(ForwardedClaims.X_USER_EMAIL)).containsExactly("");
+    }
+}
@@ -0,0 +1,246 @@
+package com.ubcmmhcsoftware.gateway.jwt;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ubcmmhcsoftware.gateway.config.GatewayAppProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs against a real (embedded) Redis with the payloads Auth Service publishes. Each test
+ * uses its own channel and key.
+ */
+class RevocationListTest {
+
+    private static RedisServer redis;
+    private static LettuceConnectionFactory connectionFactory;
+    private static ReactiveStringRedisTemplate redisTemplate;
+
+    private final String channel = "revocations:" + UUID.randomUUID();
+    private final String key = "revoked:" + UUID.randomUUID();
+    private RevocationList revocationList;
+    private SimpleMeterRegistry meterRegistry;
+    private LettuceConnectionFactory downFactory;
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        int port = freePort();
+        redis = new RedisServer(port);
+        redis.start();
+        connectionFactory = connect(port);
+        redisTemplate = new ReactiveStringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        connectionFactory.destroy();
+        redis.stop();
+    }
+
+    @AfterEach
+    void shutdown() {
+        if (revocationList != null) {
+            revocationList.shutdown();
+        }
+        if (downFactory != null) {
+            downFactory.destroy();
+        }
+    }
+
+    @Test
+    void loadsTheBacklogOnStart() {
+        long exp = now() + 900;
+        redisTemplate.opsForZSet().add(key, tokenRevoked("jti-1", exp), exp).block();
+
+        revocationList = revocationList(connectionFactory, Duration.ofMinutes(1));
+
+        await(() -> revocationList.isRevoked(claims("user-1", "jti-1", now() - 10)));
+        assertThat(revocationList.isRevoked(claims("user-1", "jti-2", now() - 10))).isFalse();
+    }
+
+    @Test
+    void appliesPublishedTokenRevocations() {
+        revocationList = revocationList(connectionFactory, Duration.ofMinutes(1));
+        ForwardedClaims claims = claims("user-1", "jti-1", now() - 10);
+        assertThat(revocationList.isRevoked(claims)).isFalse();
+
+        // Publish until the subscription is up; applying the same revocation again is harmless
+        await(() -> {
+            publish(tokenRevoked("jti-1", now() + 900));
+            return revocationList.isRevoked(claims);
+        });
+        assertThat(meterRegistry.get("gateway.revocation.rejected").counter().count()).isPositive();
+    }
+
+    @Test
+    void userRevocationCoversTokensIssuedBeforeIt() {
+        revocationList = revocationList(connectionFactory, Duration.ofMinutes(1));
+        long issuedBefore = now();
+
+        await(() -> {
+            publish(userRevoked("user-1", issuedBefore, now() + 900));
+            return revocationList.isRevoked(claims("user-1", "old", issuedBefore - 1));
+        });
+        assertThat(revocationList.isRevoked(claims("user-1", "new", issuedBefore))).isFalse();
+        assertThat(revocationList.isRevoked(claims("user-1", null, null))).isTrue();
+        assertThat(revocationList.isRevoked(claims("user-2", "other", issuedBefore - 1))).isFalse();
+    }
+
+    @Test
+    void laterUserRevocationWins() {
+        revocationList = revocationList(connectionFactory, Duration.ofMinutes(1));
+        long first = now() - 100;
+        long second = now();
+
+        await(() -> {
+            publish(userRevoked("user-1", second, now() + 900));
+            return revocationList.isRevoked(claims("user-1", "a", second - 1));
+        });
+        // An older revocation arriving late (e.g. from the backlog) must not shrink the window
+        publish(userRevoked("user-1", first, now() + 900));
+        publish(tokenRevoked("marker", now() + 900));
+        await(() -> revocationList.isRevoked(claims("user-2", "marker", now())));
+        assertThat(revocationList.isRevoked(claims("user-1", "a", second - 1))).isTrue();
+    }
+
+    @Test
+    void ignoresExpiredAndMalformedRevocations() {
+        revocationList = revocationList(connectionFactory, Duration.ofMinutes(1));
+
+        await(() -> {
+            publish(tokenRevoked("expired", now() - 1));
+            publish("not json");
+            publish("{\"data\":{\"expiresAt\":" + (now() + 900) + "}}");
+            publish(tokenRevoked("marker", now() + 900));
+            return revocationList.isRevoked(claims("user-1", "marker", now()));
+        });
+        assertThat(revocationList.isRevoked(claims("user-1", "expired", now() - 10))).isFalse();
+    }
+
+    @Test
+    void resyncDropsRevocationsOnceTheirTokensExpire() {
+        revocationList = revocationList(connectionFactory, Duration.ofMillis(200));
+        ForwardedClaims claims = claims("user-1", "jti-1", now() - 10);
+
+        await(() -> {
+            publish(tokenRevoked("jti-1", now() + 1));
+            return revocationList.isRevoked(claims);
+        });
+        await(() -> !revocationList.isRevoked(claims));
+        assertThat(meterRegistry.get("gateway.revocation.entries").tag("kind", "token").gauge().value()).isZero();
+    }
+
+    @Test
+    void keepsAnsweringWhenRedisIsDown() throws IOException {
+        downFactory = connect(freePort());
+        revocationList = revocationList(downFactory, Duration.ofMillis(200));
+
+        assertThat(revocationList.isRevoked(claims("user-1", "jti-1", now()))).isFalse();
+        await(() -> meterRegistry.get("gateway.revocation.sync").tag("outcome", "failure").counter().count() > 0);
+    }
+
+    @Test
+    void subscribesOnceRedisComesUp() throws IOException {
+        int port = freePort();
+        downFactory = connect(port);
+        revocationList = revocationList(downFactory, Duration.ofMinutes(1));
+        RedisServer late = new RedisServer(port);
+        late.start();
+        try {
+            ReactiveStringRedisTemplate lateTemplate = new ReactiveStringRedisTemplate(downFactory);
+            ForwardedClaims claims = claims("user-1", "jti-1", now() - 10);
+
+            await(Duration.ofSeconds(20), () -> {
+                lateTemplate.convertAndSend(channel, tokenRevoked("jti-1", now() + 900)).onErrorReturn(0L).block();
+                return revocationList.isRevoked(claims);
+            });
+        } finally {
+            revocationList.shutdown();
+            revocationList = null;
+            late.stop();
+        }
+    }
+
+    private RevocationList revocationList(LettuceConnectionFactory factory, Duration resyncInterval) {
+        GatewayAppProperties properties = new GatewayAppProperties();
+        ReflectionTestUtils.setField(properties, "revocationChannel", channel);
+        ReflectionTestUtils.setField(properties, "revocationKey", key);
+        ReflectionTestUtils.setField(properties, "revocationResyncInterval", resyncInterval);
+        ReflectionTestUtils.setField(properties, "revocationExpectedEntries", 100);
+        meterRegistry = new SimpleMeterRegistry();
+        return new RevocationList(new ReactiveStringRedisTemplate(factory), factory, new ObjectMapper(), properties,
+                meterRegistry);
+    }
+
+    private void publish(String payload) {
+        redisTemplate.convertAndSend(channel, payload).block();
+    }
+
+    private static String tokenRevoked(String jti, long expiresAt) {
+        return """
+                {"specversion":"1.0","type":"com.ubcmmhc.auth.token-revoked","source":"/auth-service",\
+                "data":{"jti":"%s","userId":null,"issuedBefore":null,"expiresAt":%d}}""".formatted(jti, expiresAt);
+    }
+
+    private static String userRevoked(String userId, long issuedBefore, long expiresAt) {
+        return """
+                {"specversion":"1.0","type":"com.ubcmmhc.auth.token-revoked","source":"/auth-service",\
+                "data":{"jti":null,"userId":"%s","issuedBefore":%d,"expiresAt":%d}}"""
+                .formatted(userId, issuedBefore, expiresAt);
+    }
+
+    private static ForwardedClaims claims(String userId, String jti, Long issuedAt) {
+        return new ForwardedClaims(userId, "a@example.org", "ROLE_USER", jti,
+                issuedAt != null ? Instant.ofEpochSecond(issuedAt) : null, Instant.now().plusSeconds(900));
+    }
+
+    private static long now() {
+        return Instant.now().getEpochSecond();
+    }
+
+    private static void await(BooleanSupplier condition) {
+        await(Duration.ofSeconds(5), condition);
+    }
+
+    private static void await(Duration timeout, BooleanSupplier condition) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met in time").isLessThan(deadline);
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError(e);
+            }
+        }
+    }
+
+    private static LettuceConnectionFactory connect(int port) {
+        LettuceConnectionFactory factory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", port));
+        factory.afterPropertiesSet();
+        factory.start();
+        return factory;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
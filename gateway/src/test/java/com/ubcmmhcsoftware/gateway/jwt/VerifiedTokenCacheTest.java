@@ -0,0 +1,144 @@
+package com.ubcmmhcsoftware.gateway.jwt;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.ubcmmhcsoftware.gateway.config.GatewayAppProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class VerifiedTokenCacheTest {
+
+    private static final Instant ISSUED_AT = Instant.ofEpochSecond(1_700_000_000);
+
+    private final JwtDecoder jwtDecoder = mock(JwtDecoder.class);
+    private final MutableClock clock = new MutableClock(ISSUED_AT);
+    private SimpleMeterRegistry meterRegistry;
+    private VerifiedTokenCache cache;
+
+    @BeforeEach
+    void setUp() {
+        GatewayAppProperties properties = new GatewayAppProperties();
+        ReflectionTestUtils.setField(properties, "jwtCacheMaxSize", 100L);
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new VerifiedTokenCache(jwtDecoder, properties, meterRegistry, clock);
+    }
+
+    @Test
+    void verifiesOnlyOnMiss() {
+        when(jwtDecoder.decode("token-1")).thenReturn(jwt("user-1", ISSUED_AT.plusSeconds(900)));
+
+        ForwardedClaims first = cache.resolve("token-1");
+        ForwardedClaims second = cache.resolve("token-1");
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.userId()).isEqualTo("user-1");
+        verify(jwtDecoder, times(1)).decode("token-1");
+        assertThat(gets("hit")).isEqualTo(1);
+        assertThat(gets("miss")).isEqualTo(1);
+    }
+
+    @Test
+    void entryExpiresAtTheTokensExp() {
+        when(jwtDecoder.decode("token-1")).thenReturn(jwt("user-1", ISSUED_AT.plusSeconds(900)));
+        cache.resolve("token-1");
+
+        clock.advance(Duration.ofSeconds(899));
+        cache.resolve("token-1");
+        verify(jwtDecoder, times(1)).decode("token-1");
+
+        // Past exp the entry is gone, so the decoder (which rejects the token) is asked again
+        clock.advance(Duration.ofSeconds(2));
+        when(jwtDecoder.decode("token-1")).thenThrow(new JwtException("expired"));
+        assertThatThrownBy(() -> cache.resolve("token-1")).isInstanceOf(JwtException.class);
+        verify(jwtDecoder, times(2)).decode("token-1");
+    }
+
+    @Test
+    void invalidTokensAreNotCached() {
+        when(jwtDecoder.decode("bad")).thenThrow(new JwtException("bad signature"));
+
+        assertThatThrownBy(() -> cache.resolve("bad")).isInstanceOf(JwtException.class);
+        assertThatThrownBy(() -> cache.resolve("bad")).isInstanceOf(JwtException.class);
+
+        verify(jwtDecoder, times(2)).decode("bad");
+        assertThat(entries().estimatedSize()).isZero();
+    }
+
+    @Test
+    void keysAreDigestsNotTokens() {
+        String token = "eyJhbGciOiJFUzI1NiJ9.payload.signature";
+        when(jwtDecoder.decode(token)).thenReturn(jwt("user-1", ISSUED_AT.plusSeconds(900)));
+
+        cache.resolve(token);
+
+        assertThat(entries().asMap().keySet()).singleElement().satisfies(key -> {
+            assertThat(key).isNotInstanceOf(String.class);
+            assertThat(key.toString()).doesNotContain(token);
+            assertThat((byte[]) ReflectionTestUtils.getField(key, "digest")).hasSize(32);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private Cache<Object, ForwardedClaims> entries() {
+        return (Cache<Object, ForwardedClaims>) ReflectionTestUtils.getField(cache, "cache");
+    }
+
+    private double gets(String result) {
+        return meterRegistry.get("cache.gets").tag("cache", "gateway.jwt.verified").tag("result", result)
+                .functionCounter().count();
+    }
+
+    private static Jwt jwt(String subject, Instant expiresAt) {
+        return Jwt.withTokenValue("token")
+                .header("alg", "ES256")
+                .subject(subject)
+                .issuedAt(ISSUED_AT)
+                .expiresAt(expiresAt)
+                .claim("rl", 1)
+                .build();
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.ubcmmhcsoftware.gateway.ratelimit;
+
+import com.ubcmmhcsoftware.gateway.config.GatewayAppProperties;
+import com.ubcmmhcsoftware.gateway.ratelimit.ClientIpResolver.CidrSet;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ClientIpResolverTest {
+
+    private static boolean contains(CidrSet set, String address) {
+        long[] ip = new long[2];
+        assertThat(IpAddresses.parse(address, 0, address.length(), ip)).isTrue();
+        return set.contains(ip[0], ip[1]);
+    }
+
+    private static CidrSet cidrs(String... values) {
+        CidrSet set = new CidrSet();
+        for (String value : values) {
+            set.add(value);
+        }
+        return set;
+    }
+
+    private final ClientIpResolver resolver = resolver("127.0.0.0/8", "::1", "10.0.0.0/8", "fc00::/7");
+
+    private static ClientIpResolver resolver(String... trustedProxies) {
+        GatewayAppProperties properties = new GatewayAppProperties();
+        ReflectionTestUtils.setField(properties, "trustedProxies", List.of(trustedProxies));
+        return new ClientIpResolver(properties);
+    }
+
+    private String resolve(String peer, String... forwardedFor) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get("/api/auth/login-user")
+                .remoteAddress(new InetSocketAddress(peer, 51234));
+        for (String value : forwardedFor) {
+            request.header("X-Forwarded-For", value);
+        }
+        return resolver.resolve(MockServerWebExchange.from(request));
+    }
+
+    @Test
+    void ipv4PrefixesCoverTheirRangeOnly() {
+        CidrSet set = cidrs("172.16.0.0/12", "192.168.1.7");
+
+        assertThat(contains(set, "172.16.0.1")).isTrue();
+        assertThat(contains(set, "172.31.255.255")).isTrue();
+        assertThat(contains(set, "172.32.0.0")).isFalse();
+        assertThat(contains(set, "172.15.255.255")).isFalse();
+        assertThat(contains(set, "192.168.1.7")).isTrue();
+        assertThat(contains(set, "192.168.1.8")).isFalse();
+        // IPv4 prefixes apply to the IPv4-mapped form only, not the same bits in IPv6
+        assertThat(contains(set, "::ffff:172.16.0.1")).isTrue();
+        assertThat(contains(set, "ac10::1")).isFalse();
+    }
+
+    @Test
+    void ipv6PrefixesCoverTheirRangeOnly() {
+        CidrSet set = cidrs("fc00::/7", "2001:db8::1");
+
+        assertThat(contains(set, "fd12:3456::1")).isTrue();
+        assertThat(contains(set, "fe00::1")).isFalse();
+        assertThat(contains(set, "2001:db8::1")).isTrue();
+        assertThat(contains(set, "2001:db8::2")).isFalse();
+    }
+
+    @Test
+    void zeroLengthPrefixMatchesEverything() {
+        assertThat(contains(cidrs("0.0.0.0/0"), "198.51.100.1")).isTrue();
+        assertThat(contains(cidrs("0.0.0.0/0"), "2001:db8::1")).isFalse();
+        assertThat(contains(cidrs("::/0"), "2001:db8::1")).isTrue();
+        assertThat(contains(new CidrSet(), "127.0.0.1")).isFalse();
+    }
+
+    @Test
+    void overlappingPrefixesKeepTheWiderOne() {
+        CidrSet set = cidrs("10.1.0.0/16", "10.0.0.0/8", "10.2.3.0/24");
+
+        assertThat(contains(set, "10.200.0.1")).isTrue();
+        assertThat(contains(set, "10.1.2.3")).isTrue();
+        assertThat(contains(set, "11.0.0.0")).isFalse();
+    }
+
+    @Test
+    void rejectsInvalidTrustedProxies() {
+        assertThatThrownBy(() -> cidrs("10.0.0.0/33")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> cidrs("::/129")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> cidrs("10.0.0.0/x")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> cidrs("not-an-ip/8")).isInstanceOf(IllegalArgumentException.class);
+        assertThat(contains(cidrs(" 10.0.0.0/8 ", ""), "10.0.0.1")).isTrue();
+    }
+
+    @Test
+    void growsPastTheInitialArrays() {
+        CidrSet set = new CidrSet();
+        for (int i = 0; i < 64; i++) {
+            set.add("2001:db8:" + Integer.toHexString(i) + "::/48");
+        }
+
+        assertThat(contains(set, "2001:db8:3f::1")).isTrue();
+        assertThat(contains(set, "2001:db8:40::1")).isFalse();
+    }
+
+    @Test
+    void untrustedPeerIsTheClientWhateverItForwards() {
+        assertThat(resolve("198.51.100.9", "203.0.113.7")).isEqualTo("198.51.100.9");
+    }
+
+    @Test
+    void walksForwardedForRightToLeftThroughTrustedHops() {
+        assertThat(resolve("10.0.0.2", "203.0.113.7, 198.51.100.1, 10.0.0.1")).isEqualTo("198.51.100.1");
+        assertThat(resolve("127.0.0.1", "203.0.113.7,10.0.0.1")).isEqualTo("203.0.113.7");
+    }
+
+    @Test
+    void laterHeaderLinesAreCloserHops() {
+        assertThat(resolve("10.0.0.2", "203.0.113.7", "198.51.100.1, 10.0.0.1")).isEqualTo("198.51.100.1");
+        assertThat(resolve("10.0.0.2", "203.0.113.7", "10.0.0.1")).isEqualTo("203.0.113.7");
+    }
+
+    @Test
+    void malformedHopStopsAtTheLastTrustedAddress() {
+        assertThat(resolve("10.0.0.2", "203.0.113.7, garbage, 10.0.0.1")).isEqualTo("10.0.0.1");
+        assertThat(resolve("10.0.0.2", "")).isEqualTo("10.0.0.2");
+    }
+
+    @Test
+    void allTrustedReturnsTheLeftmostHop() {
+        assertThat(resolve("10.0.0.2", "10.0.0.9, 10.0.0.1")).isEqualTo("10.0.0.9");
+        assertThat(resolve("10.0.0.2")).isEqualTo("10.0.0.2");
+    }
+
+    @Test
+    void normalizesIpv6Spellings() {
+        assertThat(resolve("::1", "[2001:0DB8:0:0::1]:443")).isEqualTo("2001:db8::1");
+        assertThat(resolve("fd00::1", "2001:db8:0:0:0:0:0:1")).isEqualTo("2001:db8::1");
+    }
+}
@@ -0,0 +1,63 @@
+package com.ubcmmhcsoftware.gateway.ratelimit;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IpAddressesTest {
+
+    private static String normalize(String address) {
+        long[] out = new long[2];
+        assertThat(IpAddresses.parse(address, 0, address.length(), out)).as(address).isTrue();
+        return IpAddresses.format(out[0], out[1]);
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "203.0.113.7|203.0.113.7",
+            "  203.0.113.7\t|203.0.113.7",
+            "203.0.113.7:443|203.0.113.7",
+            "0.0.0.0|0.0.0.0",
+            "255.255.255.255|255.255.255.255",
+            "::ffff:203.0.113.7|203.0.113.7",
+            "::ffff:cb00:7107|203.0.113.7",
+            "2001:DB8:0:0:0:0:0:1|2001:db8::1",
+            "2001:0db8:0000:0000:0000:0000:0000:0001|2001:db8::1",
+            "2001:db8::1|2001:db8::1",
+            "[2001:db8::1]:8443|2001:db8::1",
+            "fe80::1%eth0|fe80::1",
+            "::|::",
+            "::1|::1",
+            "1::|1::",
+            "2001:db8:0:0:1:0:0:1|2001:db8::1:0:0:1",
+            "2001:0:0:1:0:0:0:1|2001:0:0:1::1",
+            "2001:db8:1:2:3:4:5:6|2001:db8:1:2:3:4:5:6",
+            "2001:db8:0:1:1:1:1:1|2001:db8:0:1:1:1:1:1",
+            "64:ff9b::192.0.2.33|64:ff9b::c000:221",
+    })
+    void parsesAndFormatsCanonically(String input, String expected) {
+        assertThat(normalize(input)).isEqualTo(expected);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "", "   ", "unknown", "1.2.3", "1.2.3.4.5", "256.1.1.1", "1.2.3.", ".1.2.3", "1..2.3", "1234.1.1.1",
+            "1.2.3.4:5:6:7", ":1", "1:2:3:4:5:6:7:8:9", "1:2:3:4:5:6:7", "1::2::3", "12345::", "g::1",
+            "1:2:3:4:5:6:7:1.2.3.4", "[::1", "_gateway"
+    })
+    void rejectsMalformedAddresses(String input) {
+        long[] out = {42, 43};
+        assertThat(IpAddresses.parse(input, 0, input.length(), out)).as(input).isFalse();
+        assertThat(out).containsExactly(42, 43);
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {"192.0.2.1, 10.0.0.1|0|9|192.0.2.1", "192.0.2.1, 10.0.0.1|10|19|10.0.0.1"})
+    void parsesARangeWithoutCopying(String header, int start, int end, String expected) {
+        long[] out = new long[2];
+        assertThat(IpAddresses.parse(header, start, end, out)).isTrue();
+        assertThat(IpAddresses.format(out[0], out[1])).isEqualTo(expected);
+    }
+}
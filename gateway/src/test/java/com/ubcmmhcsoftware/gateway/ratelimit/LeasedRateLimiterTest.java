@@ -0,0 +1,159 @@
+package com.ubcmmhcsoftware.gateway.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter.Response;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import reactor.core.publisher.Flux;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs against a real (embedded) Redis so the lease script is exercised as deployed.
+ */
+class LeasedRateLimiterTest {
+
+    private static RedisServer redis;
+    private static LettuceConnectionFactory connectionFactory;
+
+    private SimpleMeterRegistry meterRegistry;
+    private LettuceConnectionFactory downFactory;
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        int port = freePort();
+        redis = new RedisServer(port);
+        redis.start();
+        connectionFactory = connect(port);
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        connectionFactory.destroy();
+        redis.stop();
+    }
+
+    @AfterEach
+    void closeDownFactory() {
+        if (downFactory != null) {
+            downFactory.destroy();
+        }
+    }
+
+    @Test
+    void servesALeaseLocallyAfterOneRedisCall() {
+        LeasedRateLimiter limiter = limiter(connectionFactory, config(100, 100, 10));
+        String id = UUID.randomUUID().toString();
+
+        List<Response> responses = Flux.range(0, 10).concatMap(i -> limiter.isAllowed("route", id)).collectList().block();
+
+        assertThat(responses).allMatch(Response::isAllowed);
+        assertThat(decisions("redis")).isEqualTo(1);
+        assertThat(decisions("local")).isEqualTo(9);
+        assertThat(responses.get(9).getHeaders()).containsEntry(LeasedRateLimiter.REMAINING_HEADER, "0");
+    }
+
+    @Test
+    void deniesOnceTheSharedBucketIsEmpty() {
+        LeasedRateLimiter limiter = limiter(connectionFactory, config(1, 5, 10));
+        String id = UUID.randomUUID().toString();
+
+        List<Response> responses = Flux.range(0, 8).concatMap(i -> limiter.isAllowed("route", id)).collectList().block();
+
+        assertThat(responses.stream().filter(Response::isAllowed)).hasSize(5);
+        assertThat(responses.get(7).isAllowed()).isFalse();
+    }
+
+    @Test
+    void concurrentCallersShareOneLeaseRequest() {
+        LeasedRateLimiter limiter = limiter(connectionFactory, config(1, 10, 10));
+        String id = UUID.randomUUID().toString();
+
+        List<Response> responses = Flux.range(0, 10).flatMap(i -> limiter.isAllowed("route", id), 10).collectList().block();
+
+        // One lease of 10 covers all ten callers; none of the shared budget is wasted
+        assertThat(responses).allMatch(Response::isAllowed);
+        assertThat(decisions("fallback")).isZero();
+        assertThat(remainingInRedis(id)).isZero();
+    }
+
+    @Test
+    void unusedPermitsGoBackToRedisWhenTheLeaseExpires() throws InterruptedException {
+        LeasedRateLimiter.Config config = config(1, 10, 10);
+        config.setLeaseTtl(Duration.ofMillis(50));
+        LeasedRateLimiter limiter = limiter(connectionFactory, config);
+        String id = UUID.randomUUID().toString();
+
+        limiter.isAllowed("route", id).block();
+        Thread.sleep(100);
+        Response second = limiter.isAllowed("route", id).block();
+
+        // 9 returned + ~0 refilled, then 9 leased again for the second call
+        assertThat(second.isAllowed()).isTrue();
+        assertThat(Long.parseLong(second.getHeaders().get(LeasedRateLimiter.REMAINING_HEADER))).isEqualTo(8);
+    }
+
+    @Test
+    void fallsBackToTheLocalBucketWhenRedisIsDown() throws IOException {
+        downFactory = connect(freePort());
+        LeasedRateLimiter limiter = limiter(downFactory, config(1, 3, 10));
+        String id = UUID.randomUUID().toString();
+
+        List<Response> responses = Flux.range(0, 5).concatMap(i -> limiter.isAllowed("route", id)).collectList().block();
+
+        // Local bucket has the same burst as the Redis one
+        assertThat(responses.stream().filter(Response::isAllowed)).hasSize(3);
+        assertThat(decisions("fallback")).isEqualTo(5);
+    }
+
+    private LeasedRateLimiter limiter(LettuceConnectionFactory factory, LeasedRateLimiter.Config config) {
+        meterRegistry = new SimpleMeterRegistry();
+        LeasedRateLimiter limiter = new LeasedRateLimiter(new ReactiveStringRedisTemplate(factory), null, meterRegistry);
+        limiter.getConfig().put("route", config);
+        return limiter;
+    }
+
+    private static LeasedRateLimiter.Config config(int replenishRate, int burstCapacity, int leaseSize) {
+        LeasedRateLimiter.Config config = new LeasedRateLimiter.Config();
+        config.setReplenishRate(replenishRate);
+        config.setBurstCapacity(burstCapacity);
+        config.setLeaseSize(leaseSize);
+        config.setRedisTimeout(Duration.ofMillis(500));
+        return config;
+    }
+
+    private double decisions(String source) {
+        return meterRegistry.get("gateway.ratelimit.decisions").tag("source", source).counter().count();
+    }
+
+    private static long remainingInRedis(String id) {
+        String tokens = new ReactiveStringRedisTemplate(connectionFactory).opsForValue()
+                .get("leased_rate_limiter.{route:" + id + "}.tokens").block();
+        return (long) Double.parseDouble(tokens);
+    }
+
+    private static LettuceConnectionFactory connect(int port) {
+        LettuceConnectionFactory factory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", port));
+        factory.afterPropertiesSet();
+        factory.start();
+        return factory;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.ubcmmhcsoftware.gateway.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocalTokenBucketTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void allowsTheBurstThenOnePerEmissionInterval() {
+        LocalTokenBucket bucket = new LocalTokenBucket(2, 3, 0);
+
+        assertThat(bucket.tryAcquire(0)).isTrue();
+        assertThat(bucket.tryAcquire(0)).isTrue();
+        assertThat(bucket.tryAcquire(0)).isTrue();
+        assertThat(bucket.tryAcquire(0)).isFalse();
+
+        assertThat(bucket.tryAcquire(SECOND / 2)).isTrue();
+        assertThat(bucket.tryAcquire(SECOND / 2)).isFalse();
+    }
+
+    @Test
+    void refillsToTheBurstAfterIdling() {
+        LocalTokenBucket bucket = new LocalTokenBucket(1, 2, 0);
+        bucket.tryAcquire(0);
+        bucket.tryAcquire(0);
+
+        long later = 10 * SECOND;
+        assertThat(bucket.tryAcquire(later)).isTrue();
+        assertThat(bucket.tryAcquire(later)).isTrue();
+        assertThat(bucket.tryAcquire(later)).isFalse();
+    }
+}
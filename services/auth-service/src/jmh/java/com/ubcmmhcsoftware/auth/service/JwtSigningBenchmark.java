@@ -0,0 +1,112 @@
+package com.ubcmmhcsoftware.auth.service;
+
+import com.ubcmmhcsoftware.auth.config.AppProperties;
+import com.ubcmmhcsoftware.auth.config.CustomUserDetails;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.security.KeyPair;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of ES256 + kid against the shared-secret HS256 it replaced and the EdDSA (Ed25519)
+ * alternative, for issuing (login, refresh) and verifying a token with the same claims.
+ * The ES256 verify here is what the gateway pays per uncached token.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtSigningBenchmark {
+
+    private JWTService jwtService;
+    private CustomUserDetails user;
+    private String es256Token;
+
+    private SecretKey hmacKey;
+    private JwtParser hs256Parser;
+    private String hs256Token;
+
+    private KeyPair ed25519Keys;
+    private JwtParser eddsaParser;
+    private String eddsaToken;
+
+    @Setup
+    public void setUp() {
+        AppProperties appProperties = new AppProperties();
+        ReflectionTestUtils.setField(appProperties, "jwtExpirationSeconds", 900L);
+        jwtService = new JWTService(new JWTSigningKeys(appProperties), appProperties);
+        user = new CustomUserDetails(UUID.randomUUID(), "member@example.org", List.of("ROLE_USER", "ROLE_BLOG_EDITOR"));
+        es256Token = jwtService.generateToken(user);
+
+        hmacKey = Jwts.SIG.HS256.key().build();
+        hs256Parser = Jwts.parser().verifyWith(hmacKey).build();
+        hs256Token = signHs256();
+
+        ed25519Keys = Jwks.CRV.Ed25519.keyPair().build();
+        eddsaParser = Jwts.parser().verifyWith(ed25519Keys.getPublic()).build();
+        eddsaToken = signEdDsa();
+    }
+
+    @Benchmark
+    public String signEs256() {
+        return jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public JWTClaims verifyEs256() {
+        return jwtService.verify(es256Token);
+    }
+
+    @Benchmark
+    public String signHs256() {
+        return claims().signWith(hmacKey, Jwts.SIG.HS256).compact();
+    }
+
+    @Benchmark
+    public Claims verifyHs256() {
+        return hs256Parser.parseSignedClaims(hs256Token).getPayload();
+    }
+
+    @Benchmark
+    public String signEdDsa() {
+        return claims().signWith(ed25519Keys.getPrivate(), Jwts.SIG.EdDSA).compact();
+    }
+
+    @Benchmark
+    public Claims verifyEdDsa() {
+        return eddsaParser.parseSignedClaims(eddsaToken).getPayload();
+    }
+
+    /** The claims JWTService issues, for the algorithms it doesn't sign with. */
+    private JwtBuilder claims() {
+        Date now = new Date();
+        return Jwts.builder()
+                .id(OpaqueTokens.generateId())
+                .subject(user.getId().toString())
+                .claim(JWTClaims.EMAIL, user.getUsername())
+                .claim(JWTClaims.ROLES, 3L)
+                .issuedAt(now)
+                .expiration(new Date(now.getTime() + 900_000));
+    }
+}
@@ -0,0 +1,79 @@
+package com.ubcmmhcsoftware.auth.service;
+
+import com.ubcmmhcsoftware.auth.config.AppProperties;
+import com.ubcmmhcsoftware.auth.config.CustomUserDetails;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.Key;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One verify() on the shared parser against the filter path it replaced (the since-removed
+ * extractId plus isTokenValid, i.e. extractId and isTokenExpired), each building a fresh
+ * parser and checking the signature again.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+    private JWTSigningKeys signingKeys;
+    private JWTService jwtService;
+    private String token;
+    private String userId;
+
+    @Setup
+    public void setUp() {
+        AppProperties appProperties = new AppProperties();
+        ReflectionTestUtils.setField(appProperties, "jwtExpirationSeconds", 900L);
+        signingKeys = new JWTSigningKeys(appProperties);
+        jwtService = new JWTService(signingKeys, appProperties);
+        userId = UUID.randomUUID().toString();
+        token = jwtService.generateToken(new CustomUserDetails(UUID.fromString(userId), "member@example.org",
+                List.of("ROLE_USER", "ROLE_BLOG_EDITOR")));
+    }
+
+    @Benchmark
+    public JWTClaims sharedParser() {
+        return jwtService.verify(token);
+    }
+
+    @Benchmark
+    public boolean parserPerCall() {
+        String id = parseClaims(token).getSubject();
+        return parseClaims(token).getSubject().equals(id) && !parseClaims(token).getExpiration().before(new Date());
+    }
+
+    private Claims parseClaims(String token) {
+        return Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        return signingKeys.verificationKey(header.getKeyId());
+                    }
+                })
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+}
@@ -19,9 +19,87 @@ public class AppProperties {
     @Value("${app.jwt-cookie.name:JWT}")
     private String jwtCookieName;
 
-    @Value("${app.jwt.expiration-seconds:604800}")
+    /** JWK Set JSON of ES256 private keys; the first one signs. See JWTSigningKeys. */
+    @Value("${app.jwt.signing-keys:}")
+    private String jwtSigningKeys;
+
+    /** Access token lifetime; sessions last longer through the refresh token. */
+    @Value("${app.jwt.expiration-seconds:900}")
     private long jwtExpirationSeconds;
 
+    @Value("${app.refresh-token.cookie-name:REFRESH}")
+    private String refreshTokenCookieName;
+
+    /** Lifetime of each refresh token; every refresh issues a new one, so this is the idle timeout. */
+    @Value("${app.refresh-token.expiration-seconds:604800}")
+    private long refreshTokenExpirationSeconds;
+
+    /** A used refresh token presented again within this window is refused without revoking the session. */
+    @Value("${app.refresh-token.reuse-grace-seconds:10}")
+    private long refreshTokenReuseGraceSeconds;
+
+    /** "claims" builds the request principal from the token alone; "database" reloads the user. */
+    @Value("${app.jwt.principal-source:claims}")
+    private String jwtPrincipalSource;
+
+    /** How long a database-loaded principal is reused; 0 reloads on every request. */
+    @Value("${app.jwt.principal-cache-ttl-seconds:30}")
+    private long jwtPrincipalCacheTtlSeconds;
+
+    /** Threads hashing passwords; 0 means one per available core. */
+    @Value("${app.password-hashing.threads:0}")
+    private int passwordHashingThreads;
+
+    /** Hash requests allowed to wait for a thread before new ones get a 503. */
+    @Value("${app.password-hashing.queue-capacity:50}")
+    private int passwordHashingQueueCapacity;
+
+    @Value("${app.password-hashing.retry-after-seconds:1}")
+    private long passwordHashingRetryAfterSeconds;
+
+    /** Fixed BCrypt strength; 0 calibrates it at startup to the target below. */
+    @Value("${app.password-hashing.bcrypt-strength:0}")
+    private int passwordHashingBcryptStrength;
+
+    @Value("${app.password-hashing.target-millis:100}")
+    private long passwordHashingTargetMillis;
+
+    /** Emails waiting to be sent; sends beyond this are dropped and counted. */
+    @Value("${app.email.queue-capacity:1000}")
+    private int emailQueueCapacity;
+
+    @Value("${app.email.workers:2}")
+    private int emailWorkers;
+
+    /** Emails combined into one Brevo call (messageVersions). */
+    @Value("${app.email.batch-size:50}")
+    private int emailBatchSize;
+
+    @Value("${app.email.max-attempts:5}")
+    private int emailMaxAttempts;
+
+    @Value("${app.email.retry-base-millis:1000}")
+    private long emailRetryBaseMillis;
+
+    @Value("${app.email.retry-max-millis:60000}")
+    private long emailRetryMaxMillis;
+
+    /** Redis pub/sub channel that gateway pods listen on for revoked access tokens. */
+    @Value("${app.revocation.channel:auth:revocations}")
+    private String revocationChannel;
+
+    /** Redis sorted set holding revocations until they expire, for pods that (re)connect. */
+    @Value("${app.revocation.key:auth:revoked}")
+    private String revocationKey;
+
+    /** Rows deleted per statement when purging expired reset and refresh tokens. */
+    @Value("${app.token-purge.batch-size:1000}")
+    private int tokenPurgeBatchSize;
+
+    public boolean isJwtPrincipalFromDatabase() {
+        return "database".equalsIgnoreCase(jwtPrincipalSource);
+    }
+
     public String getRedirectAfterLogin() {
         return frontendUrl + "/auth/callback";
     }
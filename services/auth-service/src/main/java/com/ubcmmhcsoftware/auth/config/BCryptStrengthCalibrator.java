@@ -0,0 +1,97 @@
+package com.ubcmmhcsoftware.auth.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Owns the BCrypt strength used for new hashes. With app.password-hashing.bcrypt-strength
+ * set, that value is used as is. Otherwise hashing starts at {@link #MIN_STRENGTH} and, once
+ * the application is ready (so startup work doesn't skew the timing), is raised to the
+ * highest strength that stays within app.password-hashing.target-millis on this host.
+ * Each strength step doubles the cost, so one measurement at {@link #PROBE_STRENGTH}
+ * predicts the rest.
+ */
+@Slf4j
+@Component
+public class BCryptStrengthCalibrator {
+
+    /** Never go below Spring's default, whatever the CPU. */
+    static final int MIN_STRENGTH = 10;
+    static final int MAX_STRENGTH = 16;
+
+    private static final int PROBE_STRENGTH = 8;
+    private static final int WARMUP_RUNS = 5;
+    private static final int PROBE_RUNS = 3;
+
+    private final AppProperties appProperties;
+    private final PasswordEncoder passwordEncoder = new CurrentStrengthEncoder();
+    private volatile BCryptPasswordEncoder current;
+
+    public BCryptStrengthCalibrator(AppProperties appProperties) {
+        this.appProperties = appProperties;
+        int fixed = appProperties.getPasswordHashingBcryptStrength();
+        this.current = new BCryptPasswordEncoder(fixed > 0 ? fixed : MIN_STRENGTH);
+    }
+
+    /**
+     * BCrypt encoder that always hashes at the current strength. Not a bean, so it doesn't
+     * compete with the application's PasswordEncoder.
+     */
+    public PasswordEncoder passwordEncoder() {
+        return passwordEncoder;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void calibrate() {
+        if (appProperties.getPasswordHashingBcryptStrength() > 0) {
+            return;
+        }
+        long targetMillis = appProperties.getPasswordHashingTargetMillis();
+
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(PROBE_STRENGTH);
+        // Let the JIT compile the key schedule first, or the estimate comes out too high
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            probe.encode("calibration-warmup");
+        }
+        long bestNanos = Long.MAX_VALUE;
+        for (int i = 0; i < PROBE_RUNS; i++) {
+            long start = System.nanoTime();
+            probe.encode("calibration");
+            bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+        }
+
+        int strength = MIN_STRENGTH;
+        while (strength < MAX_STRENGTH && estimateMillis(bestNanos, strength + 1) <= targetMillis) {
+            strength++;
+        }
+        current = new BCryptPasswordEncoder(strength);
+        log.info("BCrypt calibrated to strength {} (~{} ms per hash, target {} ms)",
+                strength, estimateMillis(bestNanos, strength), targetMillis);
+    }
+
+    private static long estimateMillis(long probeNanos, int strength) {
+        return (probeNanos << (strength - PROBE_STRENGTH)) / 1_000_000;
+    }
+
+    private final class CurrentStrengthEncoder implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return current.encode(rawPassword);
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return current.matches(rawPassword, encodedPassword);
+        }
+
+        @Override
+        public boolean upgradeEncoding(String encodedPassword) {
+            return current.upgradeEncoding(encodedPassword);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.ubcmmhcsoftware.auth.config;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * OAuth2 principal carrying the provisioned user, so the success handler can mint the JWT
+ * without looking the user up again. Attributes and authorities are the provider's.
+ */
+@RequiredArgsConstructor
+public class CustomOAuth2User implements OAuth2User, Serializable {
+    private final OAuth2User delegate;
+
+    @Getter
+    private final CustomUserDetails userDetails;
+
+    @Override
+    public Map<String, Object> getAttributes() {
+        return delegate.getAttributes();
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return delegate.getAuthorities();
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+}
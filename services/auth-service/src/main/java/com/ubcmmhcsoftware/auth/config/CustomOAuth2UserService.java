@@ -3,63 +3,89 @@ package com.ubcmmhcsoftware.auth.config;
 import com.ubcmmhcsoftware.auth.entity.Role;
 import com.ubcmmhcsoftware.auth.entity.User;
 import com.ubcmmhcsoftware.auth.enums.RoleEnum;
-import com.ubcmmhcsoftware.auth.repository.RoleRepository;
 import com.ubcmmhcsoftware.auth.repository.UserRepository;
+import com.ubcmmhcsoftware.auth.service.RoleRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.oauth2.client.userinfo.DefaultOAuth2UserService;
 import org.springframework.security.oauth2.client.userinfo.OAuth2UserRequest;
 import org.springframework.security.oauth2.client.userinfo.OAuth2UserService;
 import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.stereotype.Service;
 
-import java.util.Set;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
 
+/**
+ * Provisions users on OAuth2 login. A returning user whose googleId is already stored costs one
+ * read and no write; otherwise the user is created (with ROLE_USER) or linked in one upsert.
+ * The returned {@link CustomOAuth2User} carries the user's id and roles for the JWT.
+ */
 @Service
 @RequiredArgsConstructor
 public class CustomOAuth2UserService implements OAuth2UserService<OAuth2UserRequest, OAuth2User> {
+    /** Read-then-upsert rounds before giving up; a second one is only needed after a lost race. */
+    private static final int PROVISION_ATTEMPTS = 2;
+
     private final UserRepository userRepository;
-    private final RoleRepository roleRepository;
+    private final RoleRegistry roleRegistry;
+    private final DefaultOAuth2UserService delegate = new DefaultOAuth2UserService();
 
     @Override
     public OAuth2User loadUser(OAuth2UserRequest userRequest) throws OAuth2AuthenticationException {
-        OAuth2User oauthUser = new DefaultOAuth2UserService().loadUser(userRequest);
+        OAuth2User oauthUser = delegate.loadUser(userRequest);
         String registrationId = userRequest.getClientRegistration().getRegistrationId();
 
-        String email;
-        String name;
-        String providerId;
-
-        if ("google".equals(registrationId)) {
-            email = oauthUser.getAttribute("email");
-            name = oauthUser.getAttribute("name");
-            providerId = oauthUser.getAttribute("sub");
-
-        } else {
-            name = null;
-            email = null;
-            providerId = null;
+        if (!"google".equals(registrationId)) {
+            return oauthUser;
         }
 
-        if (email != null) {
-            User user = userRepository.findUserByEmail(email).orElseGet(() -> {
-                User newUser = new User();
-                newUser.setEmail(email.toLowerCase());
-                newUser.setName(name);
-                Role userRole = roleRepository.findByName(RoleEnum.ROLE_USER)
-                        .orElseThrow(() -> new RuntimeException("Role not found"));
+        String email = oauthUser.getAttribute("email");
+        String name = oauthUser.getAttribute("name");
+        String providerId = oauthUser.getAttribute("sub");
 
-                newUser.setUser_roles(Set.of(userRole));
-                return newUser;
-            });
+        if (email == null) {
+            return oauthUser;
+        }
 
-            if ("google".equals(registrationId)) {
-                user.setGoogleId(providerId);
+        String normalizedEmail = User.canonicalEmail(email);
+        for (int attempt = 0; attempt < PROVISION_ATTEMPTS; attempt++) {
+            List<UserRepository.OAuth2Link> links = userRepository.findOAuth2LinksByEmail(normalizedEmail);
+            if (!links.isEmpty()) {
+                UserRepository.OAuth2Link link = links.get(0);
+                if (!Objects.equals(link.googleId(), providerId)) {
+                    userRepository.upsertOAuth2User(UUID.randomUUID(), normalizedEmail, name, providerId, userRoleId());
+                }
+                return new CustomOAuth2User(oauthUser, toUserDetails(normalizedEmail, links));
             }
 
-            userRepository.save(user);
+            UUID id = UUID.randomUUID();
+            if (userRepository.upsertOAuth2User(id, normalizedEmail, name, providerId, userRoleId()) == 1) {
+                return new CustomOAuth2User(oauthUser,
+                        new CustomUserDetails(id, normalizedEmail, List.of(RoleEnum.ROLE_USER.name())));
+            }
+            // Created concurrently by another login for the same email: read it on the next pass.
+            // If it is gone again by then (deleted), the next pass creates the user itself.
         }
+        throw new OAuth2AuthenticationException(new OAuth2Error(OAuth2ErrorCodes.SERVER_ERROR,
+                "Could not provision the user for this login", null));
+    }
+
+    private static CustomUserDetails toUserDetails(String email, List<UserRepository.OAuth2Link> links) {
+        List<String> roles = links.stream()
+                .map(UserRepository.OAuth2Link::role)
+                .filter(Objects::nonNull)
+                .map(RoleEnum::name)
+                .toList();
+        return new CustomUserDetails(links.get(0).id(), email, roles);
+    }
 
-        return oauthUser;
+    private Long userRoleId() {
+        return roleRegistry.reference(RoleEnum.ROLE_USER)
+                .map(Role::getId)
+                .orElseThrow(() -> new RuntimeException("Role not found"));
     }
 }
@@ -25,6 +25,28 @@ public class CustomUserDetails implements UserDetails {
                 .toList();
     }
 
+    /**
+     * Copy of an existing principal with a re-encoded password.
+     */
+    public CustomUserDetails(CustomUserDetails source, String password) {
+        this.id = source.id;
+        this.username = source.username;
+        this.password = password;
+        this.authorities = source.authorities;
+    }
+
+    /**
+     * Principal rebuilt from verified JWT claims, without a database lookup. Has no password.
+     */
+    public CustomUserDetails(UUID id, String email, Collection<String> roles) {
+        this.id = id;
+        this.username = email;
+        this.password = null;
+        this.authorities = roles.stream()
+                .map(SimpleGrantedAuthority::new)
+                .toList();
+    }
+
     @Override
     public String getUsername() {
         return username;
@@ -1,7 +1,6 @@
 package com.ubcmmhcsoftware.auth.config;
 
-import com.ubcmmhcsoftware.auth.service.CustomUserDetailsService;
-import com.ubcmmhcsoftware.auth.service.JWTService;
+import com.ubcmmhcsoftware.auth.service.JWTPrincipalService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.Cookie;
@@ -10,20 +9,17 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.List;
-import java.util.UUID;
 
 @Component
 @RequiredArgsConstructor
 public class JWTAuthenticationFilter extends OncePerRequestFilter {
-    private final JWTService jwtService;
-    private final CustomUserDetailsService customUserDetailsService;
+    private final JWTPrincipalService jwtPrincipalService;
     private final AppProperties appProperties;
 
     private static final List<String> EXCLUDED_PATHS = List.of();
@@ -56,10 +52,8 @@ public class JWTAuthenticationFilter extends OncePerRequestFilter {
         }
 
         if (token != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            String id = jwtService.extractId(token);
-            if (id != null && jwtService.isTokenValid(token, id)) {
-                UserDetails userDetails = customUserDetailsService.loadUserById(UUID.fromString(id));
-
+            CustomUserDetails userDetails = jwtPrincipalService.resolve(token);
+            if (userDetails != null) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails,
                         null,
@@ -1,7 +1,9 @@
 package com.ubcmmhcsoftware.auth.config;
 
+import com.ubcmmhcsoftware.auth.service.AuthResponsiveService;
 import com.ubcmmhcsoftware.auth.service.CustomUserDetailsService;
 import com.ubcmmhcsoftware.auth.service.JWTService;
+import com.ubcmmhcsoftware.auth.service.RefreshTokenService;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -20,15 +22,21 @@ public class MyOAuth2SuccessHandler implements AuthenticationSuccessHandler {
     private final CustomUserDetailsService customUserDetailsService;
     private final AppProperties appProperties;
     private final JWTService jwtService;
+    private final AuthResponsiveService authResponsiveService;
+    private final RefreshTokenService refreshTokenService;
 
     @Override
     public void onAuthenticationSuccess(HttpServletRequest request, HttpServletResponse response,
             Authentication authentication) throws IOException, ServletException {
-        OAuth2User oauthUser = (OAuth2User) authentication.getPrincipal();
-        String email = oauthUser.getAttribute("email");
-
-        CustomUserDetails user = customUserDetailsService.loadUserByUsername(email);
+        CustomUserDetails user;
+        if (authentication.getPrincipal() instanceof CustomOAuth2User oauthUser) {
+            user = oauthUser.getUserDetails();
+        } else {
+            OAuth2User oauthUser = (OAuth2User) authentication.getPrincipal();
+            user = customUserDetailsService.loadUserByUsername(oauthUser.getAttribute("email"));
+        }
         String jwtToken = jwtService.generateToken(user);
+        authResponsiveService.addRefreshCookie(response, refreshTokenService.issue(user.getId()));
 
         String targetUrl = UriComponentsBuilder.fromUriString(appProperties.getRedirectAfterLogin())
                 .queryParam("token", jwtToken)
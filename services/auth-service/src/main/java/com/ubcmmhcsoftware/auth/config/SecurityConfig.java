@@ -1,5 +1,6 @@
 package com.ubcmmhcsoftware.auth.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -11,7 +12,7 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.HttpStatusEntryPoint;
@@ -21,16 +22,19 @@ import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
 import java.util.List;
+import java.util.Map;
 
 @Configuration
 @EnableWebSecurity
 @RequiredArgsConstructor
 public class SecurityConfig {
+    private static final String BCRYPT_ID = "bcrypt";
 
     private final CustomOAuth2UserService customOAuth2UserService;
     private final JWTAuthenticationFilter jwtAuthenticationFilter;
     private final MyOAuth2SuccessHandler myOAuth2SuccessHandler;
     private final AppProperties appProperties;
+    private final BCryptStrengthCalibrator bCryptStrengthCalibrator;
 
     @Bean
     @Order(1)
@@ -69,6 +73,7 @@ public class SecurityConfig {
                         .requestCache(new org.springframework.security.web.savedrequest.NullRequestCache()))
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/login/**", "/oauth2/**").permitAll()
+                        .requestMatchers("/.well-known/jwks.json").permitAll()
                         .anyRequest().authenticated())
                 .oauth2Login(oauth -> oauth
                         .userInfoEndpoint(userInfo -> userInfo
@@ -103,7 +108,24 @@ public class SecurityConfig {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+        int threads = appProperties.getPasswordHashingThreads() > 0
+                ? appProperties.getPasswordHashingThreads()
+                : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(versionedPasswordEncoder(), threads,
+                appProperties.getPasswordHashingQueueCapacity(),
+                appProperties.getPasswordHashingRetryAfterSeconds(), meterRegistry);
+    }
+
+    /**
+     * New hashes are written as {bcrypt}... at the configured or calibrated strength. Legacy
+     * hashes without an id are read as BCrypt; any hash with another id or a lower strength
+     * reports upgradeEncoding, so it is rewritten on the next successful login.
+     */
+    private PasswordEncoder versionedPasswordEncoder() {
+        PasswordEncoder bcrypt = bCryptStrengthCalibrator.passwordEncoder();
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(BCRYPT_ID, Map.of(BCRYPT_ID, bcrypt));
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return encoder;
     }
 }
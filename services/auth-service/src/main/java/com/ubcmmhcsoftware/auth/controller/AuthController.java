@@ -1,18 +1,18 @@
 package com.ubcmmhcsoftware.auth.controller;
 
-import com.ubcmmhcsoftware.auth.config.AppProperties;
 import com.ubcmmhcsoftware.auth.config.CustomUserDetails;
 import com.ubcmmhcsoftware.auth.dto.ForgotPasswordDTO;
 import com.ubcmmhcsoftware.auth.dto.LoginDTO;
 import com.ubcmmhcsoftware.auth.dto.ResetPasswordDTO;
 import com.ubcmmhcsoftware.auth.service.AuthResponsiveService;
 import com.ubcmmhcsoftware.auth.service.AuthService;
+import com.ubcmmhcsoftware.auth.service.RefreshTokenService;
+import com.ubcmmhcsoftware.auth.service.TokenRevocationService;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseCookie;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -25,7 +25,8 @@ import java.util.Map;
 public class AuthController {
     private final AuthService authService;
     private final AuthResponsiveService authResponsiveService;
-    private final AppProperties appProperties;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationService tokenRevocationService;
 
     @PostMapping("/register-user")
     public ResponseEntity<?> registerUser(@RequestBody LoginDTO loginDTO) {
@@ -55,26 +56,30 @@ public class AuthController {
         return ResponseEntity.status(HttpStatus.OK).build();
     }
 
+    /**
+     * Exchanges the refresh cookie for a new access JWT and a new refresh cookie, without
+     * checking the password again. The gateway calls this when the access token is near expiry.
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(
+            @CookieValue(name = "${app.refresh-token.cookie-name:REFRESH}", required = false) String refreshToken,
+            HttpServletResponse response) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(refreshToken);
+        authResponsiveService.writeSession(response, rotation.user(), rotation.refreshToken());
+        return ResponseEntity.status(HttpStatus.OK).build();
+    }
+
     @PostMapping("/logout")
-    public ResponseEntity<?> logout(HttpServletResponse response) {
-        ResponseCookie jwtCookie = ResponseCookie.from(appProperties.getJwtCookieName(), "")
-                .httpOnly(true)
-                .secure(true)
-                .path("/")
-                .maxAge(0)
-                .sameSite("None")
-                .build();
-
-        ResponseCookie xsrfCookie = ResponseCookie.from("XSRF-TOKEN", "")
-                .httpOnly(false)
-                .secure(true)
-                .path("/")
-                .maxAge(0)
-                .sameSite("None")
-                .build();
-
-        response.addHeader(HttpHeaders.SET_COOKIE, jwtCookie.toString());
-        response.addHeader(HttpHeaders.SET_COOKIE, xsrfCookie.toString());
+    public ResponseEntity<?> logout(
+            @CookieValue(name = "${app.refresh-token.cookie-name:REFRESH}", required = false) String refreshToken,
+            @CookieValue(name = "${app.jwt-cookie.name:JWT}", required = false) String accessToken,
+            @RequestHeader(name = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            HttpServletResponse response) {
+        refreshTokenService.revoke(refreshToken);
+        tokenRevocationService.revokeAccessToken(authorization != null && authorization.startsWith("Bearer ")
+                ? authorization.substring(7).trim() : accessToken);
+
+        authResponsiveService.clearSession(response);
 
         return ResponseEntity.ok("Logged out successfully");
     }
@@ -87,15 +92,7 @@ public class AuthController {
             return ResponseEntity.badRequest().body("Token is required");
         }
 
-        ResponseCookie cookie = ResponseCookie.from(appProperties.getJwtCookieName(), token)
-                .path("/")
-                .httpOnly(true)
-                .secure(appProperties.isJwtCookieSecure())
-                .maxAge(appProperties.getJwtExpirationSeconds())
-                .sameSite(appProperties.getJwtCookieSameSite())
-                .build();
-
-        response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+        response.addHeader(HttpHeaders.SET_COOKIE, authResponsiveService.accessCookie(token).toString());
 
         return ResponseEntity.ok().build();
     }
@@ -0,0 +1,27 @@
+package com.ubcmmhcsoftware.auth.controller;
+
+import com.ubcmmhcsoftware.auth.service.JWTSigningKeys;
+import io.jsonwebtoken.security.JwkSet;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Public keys that verify our JWTs, for the gateway and any other verifier.
+ */
+@RestController
+@RequiredArgsConstructor
+public class JwksController {
+    private final JWTSigningKeys signingKeys;
+
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<JwkSet> jwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(5, TimeUnit.MINUTES).cachePublic())
+                .body(signingKeys.getPublicJwks());
+    }
+}
@@ -0,0 +1,48 @@
+package com.ubcmmhcsoftware.auth.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One issued refresh token. Every refresh marks the presented token used and issues a new
+ * one in the same family (one family per login); presenting a used token again means it was
+ * copied, and the whole family is revoked. The user is held by id only, so refreshing never
+ * loads the User entity through this table.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "refresh_token")
+public class RefreshToken {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    /** SHA-256 hex of the token, never the token itself. */
+    @Column(length = 64, nullable = false)
+    private String tokenHash;
+
+    @Column(nullable = false)
+    private UUID familyId;
+
+    @Column(nullable = false)
+    private UUID userId;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    private Instant usedAt;
+
+    public RefreshToken(String tokenHash, UUID familyId, UUID userId, Instant expiresAt) {
+        this.tokenHash = tokenHash;
+        this.familyId = familyId;
+        this.userId = userId;
+        this.expiresAt = expiresAt;
+    }
+}
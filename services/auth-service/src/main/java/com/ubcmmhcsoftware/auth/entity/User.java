@@ -2,14 +2,18 @@ package com.ubcmmhcsoftware.auth.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
+import java.time.Instant;
 import java.util.HashSet;
+import java.util.Locale;
 import java.util.Set;
 import java.util.UUID;
 
 /**
  * Represents the core user identity in the Auth Service.
  * Identity fields only: id, email, googleId, password, name.
+ * Users are looked up by {@code emailCanonical} (unique), kept in sync with email on every write.
  */
 @Entity
 @Getter
@@ -31,12 +35,21 @@ public class User {
     @Column(unique = true)
     private String email;
 
+    @Column(unique = true, nullable = false)
+    @Setter(AccessLevel.NONE)
+    private String emailCanonical;
+
     private String password;
 
     private String name;
 
     private boolean newsletterSubscription = false;
 
+    /** Set by the database on insert. */
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    @Column(nullable = false, insertable = false, updatable = false)
+    private Instant createdAt;
+
     @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(name = "user_role",
             joinColumns = @JoinColumn(name = "user_id"),
@@ -49,4 +62,18 @@ public class User {
     public User(String email) {
         this.email = email;
     }
+
+    /**
+     * The form every email lookup uses: trimmed and lower-cased, so addresses differing only
+     * in case are one account. Must match what V7__add_canonical_email.sql computed.
+     */
+    public static String canonicalEmail(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    @PrePersist
+    @PreUpdate
+    void syncEmailCanonical() {
+        emailCanonical = canonicalEmail(email);
+    }
 }
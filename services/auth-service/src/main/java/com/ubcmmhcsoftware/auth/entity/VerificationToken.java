@@ -19,6 +19,8 @@ public class VerificationToken {
     @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
 
+    /** SHA-256 hex of the emailed token, never the token itself. */
+    @Column(length = 64, nullable = false)
     private String token;
 
     @OneToOne(fetch = FetchType.LAZY)
@@ -1,5 +1,13 @@
 package com.ubcmmhcsoftware.auth.enums;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Ordinals are the bit positions of the compact "rl" JWT claim (also decoded by the gateway),
+ * so new roles must be appended, never inserted or reordered.
+ */
 public enum RoleEnum {
     ROLE_USER(1),
     ROLE_BLOG_EDITOR(2),
@@ -16,4 +24,27 @@ public enum RoleEnum {
     public int getLevel() {
         return level;
     }
+
+    /**
+     * Bitmask of the given authorities, one bit per ordinal; names that aren't roles are ignored.
+     */
+    public static long toMask(Collection<String> authorities) {
+        long mask = 0;
+        for (RoleEnum role : values()) {
+            if (authorities.contains(role.name())) {
+                mask |= 1L << role.ordinal();
+            }
+        }
+        return mask;
+    }
+
+    public static List<String> fromMask(long mask) {
+        List<String> names = new ArrayList<>(Long.bitCount(mask));
+        for (RoleEnum role : values()) {
+            if ((mask & (1L << role.ordinal())) != 0) {
+                names.add(role.name());
+            }
+        }
+        return names;
+    }
 }
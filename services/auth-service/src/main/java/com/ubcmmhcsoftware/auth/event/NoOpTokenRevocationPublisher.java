@@ -0,0 +1,19 @@
+package com.ubcmmhcsoftware.auth.event;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * No-op implementation for local/test profile when Redis is not available.
+ */
+@Component
+@Profile("local")
+@Slf4j
+public class NoOpTokenRevocationPublisher implements TokenRevocationPublisher {
+
+    @Override
+    public void publishTokenRevoked(TokenRevokedEvent event) {
+        log.debug("NoOp: would publish TokenRevoked {}", event);
+    }
+}
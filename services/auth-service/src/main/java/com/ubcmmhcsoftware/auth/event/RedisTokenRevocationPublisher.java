@@ -0,0 +1,70 @@
+package com.ubcmmhcsoftware.auth.event;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ubcmmhcsoftware.auth.config.AppProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Publishes TokenRevoked events on a Redis channel for gateway pods to apply immediately,
+ * and keeps them in a sorted set (scored by expiresAt) so a pod that starts or reconnects
+ * can load the revocations it missed. Expired entries are trimmed on every publish.
+ */
+@Component
+@Primary
+@Profile("!local")
+@RequiredArgsConstructor
+@Slf4j
+public class RedisTokenRevocationPublisher implements TokenRevocationPublisher {
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final AppProperties appProperties;
+
+    @Override
+    public void publishTokenRevoked(TokenRevokedEvent event) {
+        try {
+            String payload = objectMapper.writeValueAsString(new TokenRevokedCloudEvent(event));
+            String key = appProperties.getRevocationKey();
+            redisTemplate.opsForZSet().add(key, payload, event.expiresAt().getEpochSecond());
+            redisTemplate.opsForZSet().removeRangeByScore(key, Double.NEGATIVE_INFINITY, Instant.now().getEpochSecond());
+            redisTemplate.convertAndSend(appProperties.getRevocationChannel(), payload);
+            log.info("Published TokenRevoked event ({})", event.jti() != null ? "token" : "user " + event.userId());
+        } catch (JsonProcessingException e) {
+            log.error("Failed to serialize TokenRevoked event: {}", e.getMessage());
+        } catch (Exception e) {
+            log.error("Failed to publish TokenRevoked event: {}", e.getMessage());
+        }
+    }
+
+    public record TokenRevokedCloudEvent(
+            String specversion,
+            String type,
+            String source,
+            TokenRevokedData data
+    ) {
+        public TokenRevokedCloudEvent(TokenRevokedEvent event) {
+            this(
+                    "1.0",
+                    "com.ubcmmhc.auth.token-revoked",
+                    "/auth-service",
+                    new TokenRevokedData(
+                            event.jti(),
+                            event.userId() != null ? event.userId().toString() : null,
+                            event.issuedBefore() != null ? event.issuedBefore().getEpochSecond() : null,
+                            event.expiresAt().getEpochSecond()
+                    )
+            );
+        }
+    }
+
+    /** Times are epoch seconds, like the JWT's iat/exp. */
+    public record TokenRevokedData(String jti, String userId, Long issuedBefore, long expiresAt) {}
+}
@@ -0,0 +1,9 @@
+package com.ubcmmhcsoftware.auth.event;
+
+/**
+ * Publishes access-token revocations to the gateway.
+ * Implementations: Redis (prod) or NoOp (local/tests).
+ */
+public interface TokenRevocationPublisher {
+    void publishTokenRevoked(TokenRevokedEvent event);
+}
@@ -0,0 +1,20 @@
+package com.ubcmmhcsoftware.auth.event;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Access tokens that must no longer be accepted: either one token (by jti) or every token
+ * of a user issued before {@code issuedBefore}. {@code expiresAt} is when the revocation
+ * stops mattering because every token it covers has expired anyway.
+ */
+public record TokenRevokedEvent(String jti, UUID userId, Instant issuedBefore, Instant expiresAt) {
+
+    public static TokenRevokedEvent token(String jti, Instant expiresAt) {
+        return new TokenRevokedEvent(jti, null, null, expiresAt);
+    }
+
+    public static TokenRevokedEvent user(UUID userId, Instant issuedBefore, Instant expiresAt) {
+        return new TokenRevokedEvent(null, userId, issuedBefore, expiresAt);
+    }
+}
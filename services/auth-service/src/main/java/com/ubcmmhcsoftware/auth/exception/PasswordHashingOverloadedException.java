@@ -0,0 +1,16 @@
+package com.ubcmmhcsoftware.auth.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@Getter
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class PasswordHashingOverloadedException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public PasswordHashingOverloadedException(long retryAfterSeconds) {
+        super("Too many password checks in progress, try again shortly");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,44 @@
+package com.ubcmmhcsoftware.auth.repository;
+
+import com.ubcmmhcsoftware.auth.entity.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, UUID> {
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    /**
+     * Marks the token used if nobody has yet; returns 0 if a concurrent refresh got there first.
+     */
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.usedAt = :now WHERE t.id = :id AND t.usedAt IS NULL")
+    int markUsed(UUID id, Instant now);
+
+    @Modifying
+    @Query("DELETE FROM RefreshToken t WHERE t.familyId = :familyId")
+    int deleteByFamilyId(UUID familyId);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RefreshToken t WHERE t.userId = :userId")
+    int deleteByUserId(UUID userId);
+
+    /**
+     * Deletes up to {@code batchSize} tokens that expired before {@code now}; returns how many.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            DELETE FROM refresh_token WHERE id IN (
+                SELECT id FROM refresh_token WHERE expires_at < :now LIMIT :batchSize)
+            """, nativeQuery = true)
+    int deleteExpired(Instant now, int batchSize);
+}
@@ -1,10 +1,14 @@
 package com.ubcmmhcsoftware.auth.repository;
 
 import com.ubcmmhcsoftware.auth.entity.User;
+import com.ubcmmhcsoftware.auth.enums.RoleEnum;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -14,6 +18,58 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     @Query("SELECT DISTINCT u FROM User u LEFT JOIN FETCH u.user_roles WHERE u.id = :id")
     Optional<User> findUserByIdWithRoles(UUID id);
 
-    @Query("SELECT DISTINCT u FROM User u LEFT JOIN FETCH u.user_roles WHERE u.email = :email")
-    Optional<User> findUserByEmail(String email);
+    /**
+     * Email lookups take the address as entered and probe the unique canonical-email index.
+     */
+    default Optional<User> findUserByEmail(String email) {
+        return findUserByEmailCanonical(User.canonicalEmail(email));
+    }
+
+    @Query("SELECT DISTINCT u FROM User u LEFT JOIN FETCH u.user_roles WHERE u.emailCanonical = :emailCanonical")
+    Optional<User> findUserByEmailCanonical(String emailCanonical);
+
+    /**
+     * Just enough of a user to provision an OAuth2 login and mint its JWT: one row per role
+     * (role is null for a user without roles).
+     */
+    record OAuth2Link(UUID id, String googleId, RoleEnum role) {
+    }
+
+    default List<OAuth2Link> findOAuth2LinksByEmail(String email) {
+        return findOAuth2LinksByEmailCanonical(User.canonicalEmail(email));
+    }
+
+    @Query("""
+            SELECT new com.ubcmmhcsoftware.auth.repository.UserRepository$OAuth2Link(u.id, u.googleId, r.name)
+            FROM User u LEFT JOIN u.user_roles r WHERE u.emailCanonical = :emailCanonical
+            """)
+    List<OAuth2Link> findOAuth2LinksByEmailCanonical(String emailCanonical);
+
+    /**
+     * Creates the user with the given role, or links googleId to the existing user with this
+     * email, in one statement. An existing row whose googleId already matches is left untouched.
+     * Returns 1 if a user was created, 0 otherwise. PostgreSQL-only.
+     */
+    default int upsertOAuth2User(UUID id, String email, String name, String googleId, Long roleId) {
+        return upsertOAuth2User(id, email, User.canonicalEmail(email), name, googleId, roleId);
+    }
+
+    @Modifying
+    @Transactional
+    @Query(value = """
+            WITH upserted AS (
+                INSERT INTO mmhc_user (id, email, email_canonical, name, google_id)
+                VALUES (:id, :email, :emailCanonical, :name, :googleId)
+                ON CONFLICT (email_canonical) DO UPDATE SET google_id = EXCLUDED.google_id
+                    WHERE mmhc_user.google_id IS DISTINCT FROM EXCLUDED.google_id
+                RETURNING id, (xmax = 0) AS inserted
+            )
+            INSERT INTO user_role (user_id, role_id)
+            SELECT id, :roleId FROM upserted WHERE inserted
+            """, nativeQuery = true)
+    int upsertOAuth2User(UUID id, String email, String emailCanonical, String name, String googleId, Long roleId);
+
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.id = :id")
+    int updatePassword(UUID id, String password);
 }
@@ -3,16 +3,69 @@ package com.ubcmmhcsoftware.auth.repository;
 import com.ubcmmhcsoftware.auth.entity.User;
 import com.ubcmmhcsoftware.auth.entity.VerificationToken;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface VerificationTokenRepository extends JpaRepository<VerificationToken, UUID> {
-    Optional<VerificationToken> findByToken(String token);
+    /** Token row without loading its User; token is the stored SHA-256 hash. */
+    record ResetTokenRow(UUID id, UUID userId, String token, Instant expiryDate) {
+    }
 
-    void deleteByUser_Email(String userEmail);
+    @Query("""
+            SELECT new com.ubcmmhcsoftware.auth.repository.VerificationTokenRepository$ResetTokenRow(
+                t.id, t.user.id, t.token, t.expiryDate)
+            FROM VerificationToken t WHERE t.token = :tokenHash
+            """)
+    Optional<ResetTokenRow> findRowByTokenHash(String tokenHash);
+
+    @Modifying
+    @Query("DELETE FROM VerificationToken t WHERE t.id = :id")
+    int deleteRowById(UUID id);
+
+    default void deleteByUser_Email(String userEmail) {
+        deleteByUser_EmailCanonical(User.canonicalEmail(userEmail));
+    }
+
+    void deleteByUser_EmailCanonical(String emailCanonical);
 
     Optional<VerificationToken> findByUser(User user);
+
+    /**
+     * Creates or replaces the (hashed) reset token of the user with this email in one statement.
+     * Returns the address stored for that user, or empty if no such user exists.
+     * PostgreSQL-only (ON CONFLICT).
+     */
+    default Optional<String> upsertForEmail(UUID id, String email, String token, Instant expiryDate) {
+        return upsertForEmailCanonical(id, User.canonicalEmail(email), token, expiryDate);
+    }
+
+    @Transactional
+    @Query(value = """
+            WITH saved AS (
+                INSERT INTO verification_token (id, token, user_id, expiry_date)
+                SELECT :id, :token, u.id, :expiryDate FROM mmhc_user u WHERE u.email_canonical = :emailCanonical
+                ON CONFLICT (user_id) DO UPDATE
+                    SET token = EXCLUDED.token, expiry_date = EXCLUDED.expiry_date
+                RETURNING user_id)
+            SELECT u.email FROM saved JOIN mmhc_user u ON u.id = saved.user_id
+            """, nativeQuery = true)
+    Optional<String> upsertForEmailCanonical(UUID id, String emailCanonical, String token, Instant expiryDate);
+
+    /**
+     * Deletes up to {@code batchSize} tokens that expired before {@code now}; returns how many.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            DELETE FROM verification_token WHERE id IN (
+                SELECT id FROM verification_token WHERE expiry_date < :now LIMIT :batchSize)
+            """, nativeQuery = true)
+    int deleteExpired(Instant now, int batchSize);
 }
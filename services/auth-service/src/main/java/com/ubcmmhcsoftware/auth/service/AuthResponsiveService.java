@@ -10,29 +10,65 @@ import org.springframework.stereotype.Service;
 
 import java.io.IOException;
 
+/**
+ * Writes the session cookies: a short-lived access JWT and a rotating refresh token.
+ */
 @Service
 @RequiredArgsConstructor
 public class AuthResponsiveService {
+    private static final String XSRF_COOKIE_NAME = "XSRF-TOKEN";
+
     private final JWTService jwtService;
+    private final RefreshTokenService refreshTokenService;
     private final AppProperties appProperties;
 
+    /**
+     * Starts a session after a real login (password or OAuth2).
+     */
     public void handleSuccessfulAuthentication(HttpServletResponse response, CustomUserDetails customUserDetails,
             String redirect) throws IOException {
 
-        String jwtToken = jwtService.generateToken(customUserDetails);
+        writeSession(response, customUserDetails, refreshTokenService.issue(customUserDetails.getId()));
+
+        if (redirect != null && !redirect.isEmpty()) {
+            response.sendRedirect(redirect);
+        }
+    }
+
+    /**
+     * Sets a new access JWT for the user and the given refresh token.
+     */
+    public void writeSession(HttpServletResponse response, CustomUserDetails customUserDetails, String refreshToken) {
+        response.addHeader(HttpHeaders.SET_COOKIE, accessCookie(jwtService.generateToken(customUserDetails)).toString());
+        addRefreshCookie(response, refreshToken);
+    }
+
+    public void addRefreshCookie(HttpServletResponse response, String refreshToken) {
+        response.addHeader(HttpHeaders.SET_COOKIE,
+                cookie(appProperties.getRefreshTokenCookieName(), refreshToken,
+                        appProperties.getRefreshTokenExpirationSeconds()).toString());
+    }
 
-        ResponseCookie cookie = ResponseCookie.from(appProperties.getJwtCookieName(), jwtToken)
+    /**
+     * Expires the session cookies (logout), including the script-readable XSRF-TOKEN cookie.
+     */
+    public void clearSession(HttpServletResponse response) {
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie(appProperties.getJwtCookieName(), "", 0).toString());
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie(appProperties.getRefreshTokenCookieName(), "", 0).toString());
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie(XSRF_COOKIE_NAME, "", 0).mutate().httpOnly(false).build().toString());
+    }
+
+    public ResponseCookie accessCookie(String jwtToken) {
+        return cookie(appProperties.getJwtCookieName(), jwtToken, appProperties.getJwtExpirationSeconds());
+    }
+
+    private ResponseCookie cookie(String name, String value, long maxAgeSeconds) {
+        return ResponseCookie.from(name, value)
                 .path("/")
                 .httpOnly(true)
                 .secure(appProperties.isJwtCookieSecure())
-                .maxAge(7 * 24 * 60 * 60)
+                .maxAge(maxAgeSeconds)
                 .sameSite(appProperties.getJwtCookieSameSite())
                 .build();
-
-        response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
-
-        if (redirect != null && !redirect.isEmpty()) {
-            response.sendRedirect(redirect);
-        }
     }
 }
@@ -6,11 +6,9 @@ import com.ubcmmhcsoftware.auth.dto.LoginDTO;
 import com.ubcmmhcsoftware.auth.dto.ResetPasswordDTO;
 import com.ubcmmhcsoftware.auth.entity.Role;
 import com.ubcmmhcsoftware.auth.entity.User;
-import com.ubcmmhcsoftware.auth.entity.VerificationToken;
 import com.ubcmmhcsoftware.auth.enums.RoleEnum;
 import com.ubcmmhcsoftware.auth.exception.InvalidTokenException;
 import com.ubcmmhcsoftware.auth.exception.UserAlreadyExistsException;
-import com.ubcmmhcsoftware.auth.repository.RoleRepository;
 import com.ubcmmhcsoftware.auth.repository.UserRepository;
 import com.ubcmmhcsoftware.auth.repository.VerificationTokenRepository;
 import lombok.RequiredArgsConstructor;
@@ -23,11 +21,11 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
-import java.text.DecimalFormat;
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.Optional;
-import java.util.Random;
 import java.util.Set;
+import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
@@ -38,7 +36,8 @@ public class AuthService {
     private final AuthenticationManager authenticationManager;
     private final VerificationTokenRepository verificationTokenRepository;
     private final EmailService emailService;
-    private final RoleRepository roleRepository;
+    private final RefreshTokenService refreshTokenService;
+    private final RoleRegistry roleRegistry;
     private final AppProperties appProperties;
 
     public void registerUser(LoginDTO loginDTO) {
@@ -58,13 +57,12 @@ public class AuthService {
         }
 
         User user = new User();
-        user.setEmail(loginDTO.getEmail().toLowerCase());
+        user.setEmail(User.canonicalEmail(loginDTO.getEmail()));
         user.setPassword(passwordEncoder.encode(loginDTO.getPassword()));
 
-        Role role = roleRepository.findByName(RoleEnum.ROLE_USER)
+        Role role = roleRegistry.reference(RoleEnum.ROLE_USER)
                 .orElseThrow(() -> new RuntimeException("Role not found"));
 
-        role.setName(RoleEnum.ROLE_USER);
         user.setUser_roles(Set.of(role));
 
         userRepository.save(user);
@@ -77,49 +75,40 @@ public class AuthService {
         return (CustomUserDetails) authentication.getPrincipal();
     }
 
-    @Transactional
     public void forgotPassword(String email) {
-        User user = userRepository.findUserByEmail(email).orElse(null);
-        if (user == null)
-            return;
-
-        String token = generateVerificationToken();
+        String token = OpaqueTokens.generate();
+        Instant expiryDate = Instant.now().plus(TOKEN_EXPIRATION_TIME, ChronoUnit.MINUTES);
 
-        Optional<VerificationToken> existingToken = verificationTokenRepository.findByUser(user);
-
-        if (existingToken.isPresent()) {
-            VerificationToken vt = existingToken.get();
-            vt.setToken(token);
-            vt.updateToken(token, TOKEN_EXPIRATION_TIME);
-            verificationTokenRepository.save(vt);
-        } else {
-            VerificationToken newToken = new VerificationToken(token, user, TOKEN_EXPIRATION_TIME);
-            verificationTokenRepository.save(newToken);
-        }
+        // Mail the address on file, not the caller's spelling of it (which only has to match canonically)
+        Optional<String> recipient = verificationTokenRepository.upsertForEmail(UUID.randomUUID(), email,
+                OpaqueTokens.hash(token), expiryDate);
+        if (recipient.isEmpty())
+            return;
 
         String link = String.format("%s/reset-password?token=%s", appProperties.getFrontendUrl(),
                 URLEncoder.encode(token, StandardCharsets.UTF_8));
-        emailService.sendPasswordResetEmail(user.getEmail(), "Your Password Reset Link", link);
+        emailService.sendPasswordResetEmail(recipient.get(), "Your Password Reset Link", link);
     }
 
     @Transactional
     public void resetPassword(ResetPasswordDTO resetPasswordDTO) {
-        VerificationToken verificationToken = verificationTokenRepository.findByToken(resetPasswordDTO.getToken())
+        String token = resetPasswordDTO.getToken();
+        if (token == null || token.isBlank()) {
+            throw new InvalidTokenException("Invalid token");
+        }
+        String tokenHash = OpaqueTokens.hash(token);
+        VerificationTokenRepository.ResetTokenRow row = verificationTokenRepository.findRowByTokenHash(tokenHash)
+                .filter(found -> OpaqueTokens.matches(found.token(), tokenHash))
                 .orElseThrow(() -> new InvalidTokenException("Invalid token"));
 
-        if (verificationToken.getExpiryDate().isBefore(Instant.now())) {
-            verificationTokenRepository.delete(verificationToken);
+        // Expired rows are left for VerificationTokenPurgeJob; deleting here would be rolled back by the throw
+        if (row.expiryDate().isBefore(Instant.now())) {
             throw new InvalidTokenException("Token has expired");
         }
 
-        User user = verificationToken.getUser();
-        user.setPassword(passwordEncoder.encode(resetPasswordDTO.getNewPassword()));
-        user.setVerificationToken(null);
-
-        verificationTokenRepository.delete(verificationToken);
-    }
-
-    private String generateVerificationToken() {
-        return new DecimalFormat("000000").format(new Random().nextInt(999999));
+        userRepository.updatePassword(row.userId(), passwordEncoder.encode(resetPasswordDTO.getNewPassword()));
+        verificationTokenRepository.deleteRowById(row.id());
+        // Sign out every existing session; whoever knew the old password may hold one
+        refreshTokenService.revokeAll(row.userId());
     }
 }
@@ -4,6 +4,8 @@ import com.ubcmmhcsoftware.auth.config.CustomUserDetails;
 import com.ubcmmhcsoftware.auth.entity.User;
 import com.ubcmmhcsoftware.auth.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -15,13 +17,13 @@ import java.util.UUID;
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
 
     @Override
     public CustomUserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        Optional<User> user = userRepository.findUserByEmail(email.toLowerCase());
+        Optional<User> user = userRepository.findUserByEmail(email);
 
         if (user.isPresent()) {
             return new CustomUserDetails(user.get());
@@ -38,4 +40,16 @@ public class CustomUserDetailsService implements UserDetailsService {
         }
         throw new UsernameNotFoundException(id.toString());
     }
+
+    /**
+     * Called by the DaoAuthenticationProvider after a successful login whose stored hash
+     * is outdated (legacy format or lower BCrypt strength), with the password re-encoded.
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        CustomUserDetails details = (CustomUserDetails) user;
+        userRepository.updatePassword(details.getId(), newPassword);
+        return new CustomUserDetails(details, newPassword);
+    }
 }
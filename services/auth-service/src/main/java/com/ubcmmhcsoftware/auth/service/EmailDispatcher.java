@@ -0,0 +1,262 @@
+package com.ubcmmhcsoftware.auth.service;
+
+import com.ubcmmhcsoftware.auth.config.AppProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientResponseException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outbound email pipeline for Brevo. Emails go into a bounded queue; worker threads drain
+ * it in batches (one Brevo call per batch, using messageVersions). A full queue drops the
+ * email rather than blocking the request that asked for it.
+ *
+ * <p>Failed sends are retried with exponential backoff and jitter from a separate delay
+ * queue, so an email that was accepted is never dropped for lack of space. A batch that
+ * Brevo rejects with a 4xx is resent one email at a time, so one bad recipient only fails
+ * its own email.
+ *
+ * <p>Metrics: auth.email.queue.depth, auth.email.retry.depth, auth.email.send.duration, and
+ * counters auth.email.sent / .retried / .failed / .rejected.
+ */
+@Slf4j
+@Component
+public class EmailDispatcher {
+
+    private static final String SENDER_NAME = "MMHC Team";
+    private static final String METRIC_PREFIX = "auth.email";
+    private static final long MAX_POLL_MILLIS = 1000;
+
+    private final RestClient restClient;
+    private final String senderEmail;
+    private final BlockingQueue<OutboundEmail> queue;
+    private final DelayQueue<PendingRetry> retries = new DelayQueue<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long retryBaseMillis;
+    private final long retryMaxMillis;
+
+    private final Timer sendTimer;
+    private final Counter sent;
+    private final Counter retried;
+    private final Counter failed;
+    private final Counter rejected;
+
+    private volatile boolean running = true;
+
+    public record OutboundEmail(String to, String subject, String htmlContent, int attempt) {
+        public OutboundEmail(String to, String subject, String htmlContent) {
+            this(to, subject, htmlContent, 0);
+        }
+
+        OutboundEmail nextAttempt() {
+            return new OutboundEmail(to, subject, htmlContent, attempt + 1);
+        }
+    }
+
+    public EmailDispatcher(@Value("${brevo.base-url:https://api.brevo.com/v3}") String baseUrl,
+                           @Value("${brevo.api-key}") String apiKey,
+                           @Value("${spring.mail.sender_email}") String senderEmail,
+                           AppProperties appProperties,
+                           MeterRegistry meterRegistry) {
+        this.senderEmail = senderEmail;
+        this.restClient = RestClient.builder()
+                .baseUrl(baseUrl)
+                .defaultHeader("api-key", apiKey)
+                .defaultHeader("Content-Type", "application/json")
+                .build();
+        this.queue = new ArrayBlockingQueue<>(appProperties.getEmailQueueCapacity());
+        this.batchSize = Math.max(1, appProperties.getEmailBatchSize());
+        this.maxAttempts = Math.max(1, appProperties.getEmailMaxAttempts());
+        this.retryBaseMillis = appProperties.getEmailRetryBaseMillis();
+        this.retryMaxMillis = appProperties.getEmailRetryMaxMillis();
+
+        this.sendTimer = Timer.builder(METRIC_PREFIX + ".send.duration").register(meterRegistry);
+        this.sent = Counter.builder(METRIC_PREFIX + ".sent").register(meterRegistry);
+        this.retried = Counter.builder(METRIC_PREFIX + ".retried").register(meterRegistry);
+        this.failed = Counter.builder(METRIC_PREFIX + ".failed").register(meterRegistry);
+        this.rejected = Counter.builder(METRIC_PREFIX + ".rejected").register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".queue.depth", queue, BlockingQueue::size).register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".retry.depth", retries, DelayQueue::size).register(meterRegistry);
+
+        for (int i = 1; i <= Math.max(1, appProperties.getEmailWorkers()); i++) {
+            Thread worker = new Thread(this::drainLoop, "email-worker-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    /**
+     * Queues an email without blocking. Returns false (and counts it) if the queue is full.
+     */
+    public boolean submit(OutboundEmail email) {
+        if (running && queue.offer(email)) {
+            return true;
+        }
+        rejected.increment();
+        log.warn("Email queue full, dropping email to {}", email.to());
+        return false;
+    }
+
+    private void drainLoop() {
+        List<OutboundEmail> batch = new ArrayList<>(batchSize);
+        List<PendingRetry> due = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                // Retries that are due go first, then new emails fill the rest of the batch
+                retries.drainTo(due, batchSize);
+                due.forEach(retry -> batch.add(retry.email()));
+                due.clear();
+                if (batch.isEmpty()) {
+                    OutboundEmail first = queue.poll(pollMillis(), TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                }
+                queue.drainTo(batch, batchSize - batch.size());
+                send(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Unexpected error in email worker", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /** Waits for a new email, but no longer than until the next retry is due. */
+    private long pollMillis() {
+        PendingRetry next = retries.peek();
+        return next == null ? MAX_POLL_MILLIS
+                : Math.max(1, Math.min(MAX_POLL_MILLIS, next.getDelay(TimeUnit.MILLISECONDS)));
+    }
+
+    private void send(List<OutboundEmail> batch) {
+        try {
+            sendTimer.record(() -> restClient.post()
+                    .uri("/smtp/email")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(requestBody(batch))
+                    .retrieve()
+                    .toBodilessEntity());
+            sent.increment(batch.size());
+            log.info("Sent {} email(s) via Brevo", batch.size());
+        } catch (RestClientResponseException e) {
+            HttpStatus status = HttpStatus.resolve(e.getStatusCode().value());
+            boolean retryable = status == null || status.is5xxServerError() || status == HttpStatus.TOO_MANY_REQUESTS;
+            if (retryable) {
+                scheduleRetry(batch, e.getStatusCode().toString());
+            } else if (batch.size() > 1) {
+                // Brevo rejects the whole call for one bad version; find it by sending each alone
+                log.warn("Brevo rejected a batch of {} ({}), resending one by one", batch.size(), e.getStatusCode());
+                for (OutboundEmail email : batch) {
+                    send(List.of(email));
+                }
+            } else {
+                fail(batch, e.getStatusCode() + " " + e.getResponseBodyAsString());
+            }
+        } catch (Exception e) {
+            scheduleRetry(batch, e.getMessage());
+        }
+    }
+
+    private Map<String, Object> requestBody(List<OutboundEmail> batch) {
+        OutboundEmail first = batch.get(0);
+        Map<String, Object> sender = Map.of("name", SENDER_NAME, "email", senderEmail);
+        if (batch.size() == 1) {
+            return Map.of(
+                    "sender", sender,
+                    "to", List.of(Map.of("email", first.to())),
+                    "subject", first.subject(),
+                    "htmlContent", first.htmlContent());
+        }
+        // Each recipient gets its own version; top-level content is required but overridden
+        List<Map<String, Object>> versions = batch.stream()
+                .map(email -> Map.<String, Object>of(
+                        "to", List.of(Map.of("email", email.to())),
+                        "subject", email.subject(),
+                        "htmlContent", email.htmlContent()))
+                .toList();
+        return Map.of(
+                "sender", sender,
+                "subject", first.subject(),
+                "htmlContent", first.htmlContent(),
+                "messageVersions", versions);
+    }
+
+    private void scheduleRetry(List<OutboundEmail> batch, String reason) {
+        for (OutboundEmail email : batch) {
+            if (email.attempt() + 1 >= maxAttempts) {
+                fail(List.of(email), reason);
+                continue;
+            }
+            long delay = backoffMillis(email.attempt());
+            log.warn("Email to {} failed (attempt {}/{}): {}; retrying in {} ms",
+                    email.to(), email.attempt() + 1, maxAttempts, reason, delay);
+            retried.increment();
+            retries.add(new PendingRetry(email.nextAttempt(), System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay)));
+        }
+    }
+
+    /**
+     * Exponential backoff with "equal jitter": half the capped delay is fixed, the other half random,
+     * so retries from a burst of failures spread out instead of arriving together.
+     */
+    private long backoffMillis(int attempt) {
+        long capped = Math.min(retryMaxMillis, retryBaseMillis << Math.min(attempt, 30));
+        long half = capped / 2;
+        return half + ThreadLocalRandom.current().nextLong(half + 1);
+    }
+
+    private void fail(List<OutboundEmail> emails, String reason) {
+        failed.increment(emails.size());
+        for (OutboundEmail email : emails) {
+            log.error("Giving up on email to {} after {} attempt(s): {}", email.to(), email.attempt() + 1, reason);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        workers.forEach(Thread::interrupt);
+        if (!queue.isEmpty() || !retries.isEmpty()) {
+            log.warn("Shutting down with {} unsent email(s)", queue.size() + retries.size());
+        }
+    }
+
+    private record PendingRetry(OutboundEmail email, long dueAtNanos) implements Delayed {
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueAtNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(dueAtNanos, ((PendingRetry) other).dueAtNanos);
+        }
+    }
+}
@@ -1,68 +1,27 @@
 package com.ubcmmhcsoftware.auth.service;
 
-import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.ClassPathResource;
-import org.springframework.http.MediaType;
-import org.springframework.scheduling.annotation.Async;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
-import org.springframework.util.StreamUtils;
-import org.springframework.web.client.RestClient;
 
-import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 @Service
-@Slf4j
+@RequiredArgsConstructor
 public class EmailService {
 
-    private final RestClient restClient;
-    private final String senderEmail;
+    private static final String PASSWORD_RESET_TEMPLATE = "password_reset_email";
 
-    public EmailService(@Value("${brevo.api-key}") String apiKey,
-                        @Value("${spring.mail.sender_email}") String senderEmail) {
-        this.senderEmail = senderEmail;
-        this.restClient = RestClient.builder()
-                .baseUrl("https://api.brevo.com/v3")
-                .defaultHeader("api-key", apiKey)
-                .defaultHeader("Content-Type", "application/json")
-                .build();
-    }
+    private final EmailTemplates emailTemplates;
+    private final EmailDispatcher emailDispatcher;
 
-    @Async
+    /**
+     * Renders the reset email and queues it; delivery and retries happen in {@link EmailDispatcher}.
+     */
     public void sendPasswordResetEmail(String to, String subject, String redirect_link) {
-        String htmlContent = loadTemplate("template/password_reset_email.html");
-        htmlContent = htmlContent.replace("{{reset_link}}", redirect_link);
-
-        Map<String, Object> emailRequest = Map.of(
-                "sender", Map.of("name", "MMHC Team", "email", senderEmail),
-                "to", List.of(Map.of("email", to)),
-                "subject", subject,
-                "htmlContent", htmlContent
-        );
-
-        try {
-            restClient.post()
-                    .uri("/smtp/email")
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .body(emailRequest)
-                    .retrieve()
-                    .toBodilessEntity();
-
-            log.info("Password reset email sent successfully to {}", to);
-        } catch (Exception e) {
-            log.error("Failed to send email via Brevo API: {}", e.getMessage());
-        }
-    }
+        String htmlContent = emailTemplates.render(PASSWORD_RESET_TEMPLATE, Locale.ROOT,
+                Map.of("reset_link", redirect_link));
 
-    private String loadTemplate(String path) {
-        try {
-            ClassPathResource resource = new ClassPathResource(path);
-            return StreamUtils.copyToString(resource.getInputStream(), StandardCharsets.UTF_8);
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to load template: " + path, e);
-        }
+        emailDispatcher.submit(new EmailDispatcher.OutboundEmail(to, subject, htmlContent));
     }
 }
@@ -0,0 +1,130 @@
+package com.ubcmmhcsoftware.auth.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Email templates loaded from classpath:template/ once at startup and pre-split into
+ * literal text and {{placeholder}} segments, so rendering is a single pass of appends.
+ *
+ * <p>A file {@code <name>.html} is the default for a template; {@code <name>.<locale>.html}
+ * (e.g. {@code password_reset_email.fr.html} or {@code password_reset_email.fr-CA.html})
+ * overrides it for that locale. Placeholder values are inserted as is.
+ */
+@Slf4j
+@Component
+public class EmailTemplates {
+
+    private static final String LOCATION = "classpath*:template/*.html";
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+    private static final int MAX_REUSED_CAPACITY = 64 * 1024;
+
+    // Keyed by "name" or "name.languageTag"
+    private final Map<String, CompiledTemplate> templates = new HashMap<>();
+    private final ThreadLocal<StringBuilder> buffers = ThreadLocal.withInitial(() -> new StringBuilder(4096));
+
+    public EmailTemplates() throws IOException {
+        for (Resource resource : new PathMatchingResourcePatternResolver().getResources(LOCATION)) {
+            String filename = resource.getFilename();
+            if (filename == null) {
+                continue;
+            }
+            String key = filename.substring(0, filename.length() - ".html".length());
+            try (InputStream in = resource.getInputStream()) {
+                templates.put(key, CompiledTemplate.compile(key, StreamUtils.copyToString(in, StandardCharsets.UTF_8)));
+            }
+        }
+        log.info("Loaded email templates: {}", templates.keySet());
+    }
+
+    /**
+     * Renders a template for the closest available locale (language-country, language, default).
+     * Throws IllegalArgumentException if the template or one of its placeholder values is missing.
+     */
+    public String render(String name, Locale locale, Map<String, String> values) {
+        CompiledTemplate template = resolve(name, locale);
+        StringBuilder sb = buffers.get();
+        sb.setLength(0);
+        template.renderTo(sb, values);
+        String html = sb.toString();
+        if (sb.capacity() > MAX_REUSED_CAPACITY) {
+            buffers.remove();
+        }
+        return html;
+    }
+
+    private CompiledTemplate resolve(String name, Locale locale) {
+        if (locale != null && !locale.getLanguage().isEmpty()) {
+            if (!locale.getCountry().isEmpty()) {
+                CompiledTemplate exact = templates.get(name + "." + locale.getLanguage() + "-" + locale.getCountry());
+                if (exact != null) {
+                    return exact;
+                }
+            }
+            CompiledTemplate language = templates.get(name + "." + locale.getLanguage());
+            if (language != null) {
+                return language;
+            }
+        }
+        CompiledTemplate fallback = templates.get(name);
+        if (fallback == null) {
+            throw new IllegalArgumentException("Unknown email template: " + name);
+        }
+        return fallback;
+    }
+
+    /**
+     * Template as alternating segments: literals[0] placeholders[0] literals[1] ... literals[n].
+     */
+    private record CompiledTemplate(String name, String[] literals, String[] placeholders, int literalLength) {
+
+        static CompiledTemplate compile(String name, String source) {
+            List<String> literals = new ArrayList<>();
+            List<String> placeholders = new ArrayList<>();
+            int literalLength = 0;
+            int pos = 0;
+            while (true) {
+                int open = source.indexOf(OPEN, pos);
+                int close = open < 0 ? -1 : source.indexOf(CLOSE, open + OPEN.length());
+                if (close < 0) {
+                    break;
+                }
+                literals.add(source.substring(pos, open));
+                placeholders.add(source.substring(open + OPEN.length(), close).trim());
+                literalLength += open - pos;
+                pos = close + CLOSE.length();
+            }
+            literals.add(source.substring(pos));
+            literalLength += source.length() - pos;
+            return new CompiledTemplate(name, literals.toArray(String[]::new),
+                    placeholders.toArray(String[]::new), literalLength);
+        }
+
+        void renderTo(StringBuilder sb, Map<String, String> values) {
+            sb.ensureCapacity(literalLength + 256);
+            for (int i = 0; i < placeholders.length; i++) {
+                String value = values.get(placeholders[i]);
+                if (value == null) {
+                    throw new IllegalArgumentException(
+                            "Missing value for {{" + placeholders[i] + "}} in email template " + name);
+                }
+                sb.append(literals[i]).append(value);
+            }
+            sb.append(literals[placeholders.length]);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.ubcmmhcsoftware.auth.service;
+
+import com.ubcmmhcsoftware.auth.enums.RoleEnum;
+import io.jsonwebtoken.Claims;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Immutable view of a verified token's claims, read once from the parsed payload
+ * so callers can reuse it without parsing or verifying the token again.
+ *
+ * <p>Tokens use the compact profile: email as "em" and roles as "rl", a bitmask of
+ * {@link RoleEnum} ordinals. The older "email"/"roles" names are still read.
+ */
+public record JWTClaims(String id, String subject, String email, List<String> roles, Instant issuedAt,
+                        Instant expiresAt) {
+
+    static final String EMAIL = "em";
+    static final String ROLES = "rl";
+    private static final String LEGACY_EMAIL = "email";
+    private static final String LEGACY_ROLES = "roles";
+
+    public JWTClaims {
+        roles = roles != null ? List.copyOf(roles) : List.of();
+    }
+
+    @SuppressWarnings("unchecked")
+    static JWTClaims from(Claims claims) {
+        Number roleMask = claims.get(ROLES, Number.class);
+        String email = claims.get(EMAIL, String.class);
+        return new JWTClaims(
+                claims.getId(),
+                claims.getSubject(),
+                email != null ? email : claims.get(LEGACY_EMAIL, String.class),
+                roleMask != null ? RoleEnum.fromMask(roleMask.longValue()) : claims.get(LEGACY_ROLES, List.class),
+                claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null,
+                claims.getExpiration() != null ? claims.getExpiration().toInstant() : null);
+    }
+}
@@ -0,0 +1,74 @@
+package com.ubcmmhcsoftware.auth.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ubcmmhcsoftware.auth.config.AppProperties;
+import com.ubcmmhcsoftware.auth.config.CustomUserDetails;
+import io.jsonwebtoken.JwtException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Turns a JWT into the request principal.
+ * By default the principal is built from the signed sub, email and roles claims, so
+ * authenticated requests never touch the database. With app.jwt.principal-source=database
+ * the user is reloaded instead, reusing each load for app.jwt.principal-cache-ttl-seconds.
+ */
+@Slf4j
+@Service
+public class JWTPrincipalService {
+
+    private final JWTService jwtService;
+    private final CustomUserDetailsService customUserDetailsService;
+    private final boolean fromDatabase;
+    private final Cache<UUID, CustomUserDetails> principalCache;
+
+    public JWTPrincipalService(JWTService jwtService, CustomUserDetailsService customUserDetailsService,
+                               AppProperties appProperties) {
+        this.jwtService = jwtService;
+        this.customUserDetailsService = customUserDetailsService;
+        this.fromDatabase = appProperties.isJwtPrincipalFromDatabase();
+
+        long ttlSeconds = appProperties.getJwtPrincipalCacheTtlSeconds();
+        this.principalCache = fromDatabase && ttlSeconds > 0
+                ? Caffeine.newBuilder()
+                        .maximumSize(10_000)
+                        .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                        .build()
+                : null;
+    }
+
+    /**
+     * Returns the principal for a token, or null if the token is invalid, expired or its user is gone.
+     */
+    public CustomUserDetails resolve(String token) {
+        JWTClaims claims;
+        UUID id;
+        try {
+            claims = jwtService.verify(token);
+            if (claims.subject() == null) {
+                return null;
+            }
+            id = UUID.fromString(claims.subject());
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("Rejected JWT: {}", e.getMessage());
+            return null;
+        }
+
+        if (!fromDatabase) {
+            return new CustomUserDetails(id, claims.email(), claims.roles());
+        }
+
+        try {
+            return principalCache != null
+                    ? principalCache.get(id, customUserDetailsService::loadUserById)
+                    : customUserDetailsService.loadUserById(id);
+        } catch (UsernameNotFoundException e) {
+            return null;
+        }
+    }
+}
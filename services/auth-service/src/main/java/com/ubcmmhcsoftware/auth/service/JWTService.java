@@ -2,37 +2,41 @@ package com.ubcmmhcsoftware.auth.service;
 
 import com.ubcmmhcsoftware.auth.config.AppProperties;
 import com.ubcmmhcsoftware.auth.config.CustomUserDetails;
-import io.jsonwebtoken.Claims;
+import com.ubcmmhcsoftware.auth.enums.RoleEnum;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
-import org.springframework.beans.factory.annotation.Value;
+import io.jsonwebtoken.LocatorAdapter;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Service;
 
-import javax.crypto.SecretKey;
-import java.nio.charset.StandardCharsets;
+import java.security.Key;
 import java.time.Instant;
 import java.util.Date;
-import java.util.List;
-import java.util.function.Function;
 
+/**
+ * Issues and verifies ES256 JWTs with a kid header; keys come from {@link JWTSigningKeys}.
+ * The token travels in a cookie on every request, so it is kept small: no typ header and
+ * the compact claims described in {@link JWTClaims}. Each token gets a short jti so it can be
+ * revoked on its own (see {@link TokenRevocationService}).
+ */
 @Service
 public class JWTService {
-    private static final int MIN_SECRET_LENGTH = 32; // HS256 requires 256 bits
-
-    private final SecretKey key;
+    private final JWTSigningKeys signingKeys;
+    private final JwtParser parser;
     private final AppProperties appProperties;
 
-    public JWTService(@Value("${spring.jwt.secret}") String secret, AppProperties appProperties) {
-        if (secret == null || secret.isBlank()) {
-            throw new IllegalStateException(
-                "JWT_SECRET_TOKEN must be set and non-empty. Set it in Railway Shared Variables or environment.");
-        }
-        if (secret.getBytes(StandardCharsets.UTF_8).length < MIN_SECRET_LENGTH) {
-            throw new IllegalStateException(
-                "JWT_SECRET_TOKEN must be at least 32 characters for HS256. Current length: " + secret.length());
-        }
-        this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    public JWTService(JWTSigningKeys signingKeys, AppProperties appProperties) {
+        this.signingKeys = signingKeys;
+        // Immutable and thread-safe, so built once rather than per call
+        this.parser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        return signingKeys.verificationKey(header.getKeyId());
+                    }
+                })
+                .build();
         this.appProperties = appProperties;
     }
 
@@ -42,44 +46,25 @@ public class JWTService {
 
         return Jwts.builder()
                 .header()
-                .type("JWT")
+                .keyId(signingKeys.getSigningKeyId())
                 .and()
+                .id(OpaqueTokens.generateId())
                 .subject(userDetails.getId().toString())
-                .claim("email", userDetails.getUsername())
-                .claim("roles", userDetails.getAuthorities()
+                .claim(JWTClaims.EMAIL, userDetails.getUsername())
+                .claim(JWTClaims.ROLES, RoleEnum.toMask(userDetails.getAuthorities()
                         .stream()
                         .map(GrantedAuthority::getAuthority)
-                        .toList())
+                        .toList()))
                 .issuedAt(Date.from(now))
                 .expiration(Date.from(expiry))
-                .signWith(key, Jwts.SIG.HS256)
+                .signWith(signingKeys.getSigningKey(), Jwts.SIG.ES256)
                 .compact();
     }
-
-    private <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        return claimsResolver.apply(claims);
-    }
-
-    public boolean isTokenValid(String token, String id) {
-        String tokenId = extractId(token);
-        return (tokenId.equals(id) && !isTokenExpired(token));
-    }
-
-    private boolean isTokenExpired(String token) {
-        Date expiration = extractClaim(token, Claims::getExpiration);
-        return expiration.before(new Date());
-    }
-
-    public String extractId(String token) {
-        return extractClaim(token, Claims::getSubject);
-    }
-
-    public List<String> extractRoles(String token) {
-        return extractClaim(token, claims -> claims.get("roles", List.class));
+    /**
+     * Verifies the signature and expiry once and returns the claims.
+     * Throws {@link io.jsonwebtoken.JwtException} if the token is invalid or expired.
+     */
+    public JWTClaims verify(String token) {
+        return JWTClaims.from(parser.parseSignedClaims(token).getPayload());
     }
 }
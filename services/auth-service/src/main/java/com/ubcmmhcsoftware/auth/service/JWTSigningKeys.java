@@ -0,0 +1,101 @@
+package com.ubcmmhcsoftware.auth.service;
+
+import com.ubcmmhcsoftware.auth.config.AppProperties;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.EcPrivateJwk;
+import io.jsonwebtoken.security.EcPublicJwk;
+import io.jsonwebtoken.security.Jwk;
+import io.jsonwebtoken.security.JwkSet;
+import io.jsonwebtoken.security.Jwks;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.security.KeyPair;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ES256 keys for signing and verifying JWTs, from app.jwt.signing-keys (a JWK Set of P-256
+ * private keys). The first key signs new tokens; every key verifies and is published at
+ * /.well-known/jwks.json, so a key can be rotated by putting the new one first and removing
+ * the old one once tokens signed with it have expired. Keys without a kid get the first
+ * {@link #KID_LENGTH} characters of their RFC 7638 thumbprint (the kid rides in every token).
+ *
+ * <p>With no keys configured an ephemeral one is generated, which only suits a single local
+ * instance: its tokens stop verifying on restart.
+ */
+@Slf4j
+@Component
+public class JWTSigningKeys {
+
+    static final int KID_LENGTH = 8;
+
+    @Getter
+    private final String signingKeyId;
+    @Getter
+    private final PrivateKey signingKey;
+    private final Map<String, PublicKey> verificationKeys = new LinkedHashMap<>();
+    @Getter
+    private final JwkSet publicJwks;
+
+    public JWTSigningKeys(AppProperties appProperties) {
+        List<EcPrivateJwk> privateJwks = parse(appProperties.getJwtSigningKeys());
+        if (privateJwks.isEmpty()) {
+            KeyPair keyPair = Jwts.SIG.ES256.keyPair().build();
+            privateJwks = List.of(withShortId(Jwks.builder().ecKeyPair(keyPair).build()));
+            log.warn("JWT_SIGNING_KEYS is not set; signing with an ephemeral key that is lost on restart");
+        }
+
+        List<Jwk<?>> publicKeys = new ArrayList<>();
+        for (EcPrivateJwk privateJwk : privateJwks) {
+            EcPublicJwk publicJwk = privateJwk.toPublicJwk();
+            publicKeys.add(publicJwk);
+            if (verificationKeys.putIfAbsent(publicJwk.getId(), publicJwk.toKey()) != null) {
+                throw new IllegalStateException("Duplicate kid in JWT_SIGNING_KEYS: " + publicJwk.getId());
+            }
+        }
+        this.signingKeyId = privateJwks.get(0).getId();
+        this.signingKey = privateJwks.get(0).toKey();
+        this.publicJwks = Jwks.set().add(publicKeys).build();
+        log.info("JWT signing key {}, verification keys {}", signingKeyId, verificationKeys.keySet());
+    }
+
+    /**
+     * Public key for a token's kid header, or null if it isn't one of ours.
+     */
+    public PublicKey verificationKey(String keyId) {
+        return keyId == null ? null : verificationKeys.get(keyId);
+    }
+
+    private static List<EcPrivateJwk> parse(String jwkSetJson) {
+        if (jwkSetJson == null || jwkSetJson.isBlank()) {
+            return List.of();
+        }
+        JwkSet set = Jwks.setParser().build().parse(jwkSetJson);
+        return set.getKeys().stream()
+                .map(JWTSigningKeys::toEs256PrivateJwk)
+                .toList();
+    }
+
+    private static EcPrivateJwk toEs256PrivateJwk(Jwk<?> jwk) {
+        if (!(jwk instanceof EcPrivateJwk ecJwk) || !"P-256".equals(ecJwk.get("crv"))) {
+            throw new IllegalStateException("JWT_SIGNING_KEYS must only contain EC P-256 private keys (ES256)");
+        }
+        if (ecJwk.getId() != null) {
+            return ecJwk;
+        }
+        return withShortId(ecJwk);
+    }
+
+    private static EcPrivateJwk withShortId(EcPrivateJwk jwk) {
+        return Jwks.builder()
+                .ecKeyPair(jwk.toKeyPair().toJavaKeyPair())
+                .id(jwk.thumbprint().toString().substring(0, KID_LENGTH))
+                .build();
+    }
+}
@@ -0,0 +1,52 @@
+package com.ubcmmhcsoftware.auth.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.HexFormat;
+
+/**
+ * Opaque bearer tokens (password reset links, refresh tokens). The token handed out is 256
+ * random bits (URL-safe Base64); only its SHA-256 (64 hex chars) is stored, so a leaked
+ * table can't be replayed. {@link #generateId()} gives shorter ids that only need to be unique.
+ */
+final class OpaqueTokens {
+
+    private static final int TOKEN_BYTES = 32;
+    private static final int ID_BYTES = 12;
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private OpaqueTokens() {
+    }
+
+    static String generate() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        RANDOM.nextBytes(bytes);
+        return ENCODER.encodeToString(bytes);
+    }
+
+    /** 96 random bits (16 chars), e.g. a JWT's jti. */
+    static String generateId() {
+        byte[] bytes = new byte[ID_BYTES];
+        RANDOM.nextBytes(bytes);
+        return ENCODER.encodeToString(bytes);
+    }
+
+    static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /** Compares two hashes without leaking how many leading characters match. */
+    static boolean matches(String expectedHash, String actualHash) {
+        return MessageDigest.isEqual(expectedHash.getBytes(StandardCharsets.US_ASCII),
+                actualHash.getBytes(StandardCharsets.US_ASCII));
+    }
+}
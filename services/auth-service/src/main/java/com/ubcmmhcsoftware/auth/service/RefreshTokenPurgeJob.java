@@ -0,0 +1,40 @@
+package com.ubcmmhcsoftware.auth.service;
+
+import com.ubcmmhcsoftware.auth.config.AppProperties;
+import com.ubcmmhcsoftware.auth.repository.RefreshTokenRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Deletes expired refresh tokens (including used ones kept for reuse detection), in batches
+ * like {@link VerificationTokenPurgeJob}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RefreshTokenPurgeJob {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final AppProperties appProperties;
+
+    @Scheduled(fixedDelayString = "${app.token-purge.interval:PT1H}",
+            initialDelayString = "${app.token-purge.interval:PT1H}")
+    public void purgeExpired() {
+        int batchSize = Math.max(1, appProperties.getTokenPurgeBatchSize());
+        Instant now = Instant.now();
+        int total = 0;
+        int deleted;
+        do {
+            deleted = refreshTokenRepository.deleteExpired(now, batchSize);
+            total += deleted;
+        } while (deleted == batchSize);
+
+        if (total > 0) {
+            log.info("Purged {} expired refresh token(s)", total);
+        }
+    }
+}
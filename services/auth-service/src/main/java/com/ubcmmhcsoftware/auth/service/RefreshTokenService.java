@@ -0,0 +1,109 @@
+package com.ubcmmhcsoftware.auth.service;
+
+import com.ubcmmhcsoftware.auth.config.AppProperties;
+import com.ubcmmhcsoftware.auth.config.CustomUserDetails;
+import com.ubcmmhcsoftware.auth.entity.RefreshToken;
+import com.ubcmmhcsoftware.auth.exception.InvalidTokenException;
+import com.ubcmmhcsoftware.auth.repository.RefreshTokenRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Issues and rotates refresh tokens, so a short-lived access token can be renewed without
+ * running BCrypt again. Each refresh uses up the presented token and returns a new one;
+ * replaying a used token revokes its whole family, except within a short grace period that
+ * covers parallel requests racing to refresh with the same cookie.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RefreshTokenService {
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final CustomUserDetailsService customUserDetailsService;
+    private final TokenRevocationService tokenRevocationService;
+    private final AppProperties appProperties;
+
+    /** The principal for the new access token and the refresh token that replaces the old one. */
+    public record Rotation(CustomUserDetails user, String refreshToken) {
+    }
+
+    /**
+     * Starts a new family (a new login) and returns its first token.
+     */
+    @Transactional
+    public String issue(UUID userId) {
+        return issue(userId, UUID.randomUUID());
+    }
+
+    @Transactional(noRollbackFor = InvalidTokenException.class)
+    public Rotation rotate(String token) {
+        RefreshToken current = find(token);
+        Instant now = Instant.now();
+
+        if (current.getExpiresAt().isBefore(now)) {
+            throw new InvalidTokenException("Refresh token has expired");
+        }
+        if (current.getUsedAt() != null || refreshTokenRepository.markUsed(current.getId(), now) == 0) {
+            Instant usedAt = current.getUsedAt() != null ? current.getUsedAt() : now;
+            if (usedAt.plusSeconds(appProperties.getRefreshTokenReuseGraceSeconds()).isBefore(now)) {
+                refreshTokenRepository.deleteByFamilyId(current.getFamilyId());
+                // The thief may also hold an access token from this family; other sessions just refresh
+                tokenRevocationService.revokeUser(current.getUserId());
+                log.warn("Refresh token reused for user {}; revoked its session", current.getUserId());
+            }
+            throw new InvalidTokenException("Refresh token already used");
+        }
+
+        CustomUserDetails user;
+        try {
+            user = customUserDetailsService.loadUserById(current.getUserId());
+        } catch (UsernameNotFoundException e) {
+            throw new InvalidTokenException("Invalid refresh token");
+        }
+        return new Rotation(user, issue(current.getUserId(), current.getFamilyId()));
+    }
+
+    /**
+     * Ends the session the token belongs to (logout). Unknown tokens are ignored.
+     */
+    @Transactional
+    public void revoke(String token) {
+        if (token == null || token.isBlank()) {
+            return;
+        }
+        refreshTokenRepository.findByTokenHash(OpaqueTokens.hash(token))
+                .ifPresent(found -> refreshTokenRepository.deleteByFamilyId(found.getFamilyId()));
+    }
+
+    /**
+     * Ends every session of the user, e.g. after a password reset, including access tokens
+     * already issued.
+     */
+    public void revokeAll(UUID userId) {
+        refreshTokenRepository.deleteByUserId(userId);
+        tokenRevocationService.revokeUser(userId);
+    }
+
+    private String issue(UUID userId, UUID familyId) {
+        String token = OpaqueTokens.generate();
+        Instant expiresAt = Instant.now().plusSeconds(appProperties.getRefreshTokenExpirationSeconds());
+        refreshTokenRepository.save(new RefreshToken(OpaqueTokens.hash(token), familyId, userId, expiresAt));
+        return token;
+    }
+
+    private RefreshToken find(String token) {
+        if (token == null || token.isBlank()) {
+            throw new InvalidTokenException("Invalid refresh token");
+        }
+        String tokenHash = OpaqueTokens.hash(token);
+        return refreshTokenRepository.findByTokenHash(tokenHash)
+                .filter(found -> OpaqueTokens.matches(found.getTokenHash(), tokenHash))
+                .orElseThrow(() -> new InvalidTokenException("Invalid refresh token"));
+    }
+}
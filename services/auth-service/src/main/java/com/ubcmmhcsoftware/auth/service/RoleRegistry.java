@@ -0,0 +1,74 @@
+package com.ubcmmhcsoftware.auth.service;
+
+import com.ubcmmhcsoftware.auth.entity.Role;
+import com.ubcmmhcsoftware.auth.enums.RoleEnum;
+import com.ubcmmhcsoftware.auth.repository.RoleRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The seeded rows of the role table, loaded once and kept for the life of the process.
+ * {@link #reference} hands out entity references (no query) for use in user_role
+ * associations. The table is only changed by migrations; call {@link #invalidate()} if
+ * it is ever changed at runtime. An unknown role also triggers one reload.
+ *
+ * <p>user-service has an identical copy (the services share no code module), so change
+ * both together.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RoleRegistry {
+    private final RoleRepository roleRepository;
+    private final EntityManager entityManager;
+
+    private volatile Map<RoleEnum, Role> roles;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        reload();
+    }
+
+    public void invalidate() {
+        roles = null;
+    }
+
+    /**
+     * Reference to the role's row, attached to the current persistence context without
+     * loading it. Empty if the role is not in the table.
+     */
+    public Optional<Role> reference(RoleEnum name) {
+        Role role = current().get(name);
+        if (role == null) {
+            role = reload().get(name);
+        }
+        return Optional.ofNullable(role).map(found -> entityManager.getReference(Role.class, found.getId()));
+    }
+
+    private Map<RoleEnum, Role> current() {
+        Map<RoleEnum, Role> snapshot = roles;
+        return snapshot != null ? snapshot : reload();
+    }
+
+    /**
+     * Returns the map it loaded rather than leaving callers to re-read {@link #roles}, which a
+     * concurrent {@link #invalidate()} may have cleared again.
+     */
+    private Map<RoleEnum, Role> reload() {
+        Map<RoleEnum, Role> loaded = new EnumMap<>(RoleEnum.class);
+        for (Role role : roleRepository.findAll()) {
+            loaded.put(role.getName(), role);
+        }
+        roles = loaded;
+        log.info("Loaded roles: {}", loaded.keySet());
+        return loaded;
+    }
+}
@@ -0,0 +1,67 @@
+package com.ubcmmhcsoftware.auth.service;
+
+import com.ubcmmhcsoftware.auth.config.AppProperties;
+import com.ubcmmhcsoftware.auth.event.TokenRevocationPublisher;
+import com.ubcmmhcsoftware.auth.event.TokenRevokedEvent;
+import io.jsonwebtoken.JwtException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Revokes access tokens before their exp. Revocations are only published (the gateway
+ * keeps them in memory); nothing is stored in the database and entries expire with the
+ * tokens they cover. Inside a transaction they are published after it commits, so a
+ * rolled-back password reset doesn't sign the user out.
+ */
+@Service
+@RequiredArgsConstructor
+public class TokenRevocationService {
+    private final JWTService jwtService;
+    private final TokenRevocationPublisher tokenRevocationPublisher;
+    private final AppProperties appProperties;
+
+    /**
+     * Revokes one access token (logout). Invalid, expired or jti-less tokens are ignored.
+     */
+    public void revokeAccessToken(String token) {
+        if (token == null || token.isBlank()) {
+            return;
+        }
+        JWTClaims claims;
+        try {
+            claims = jwtService.verify(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return;
+        }
+        if (claims.id() != null && claims.expiresAt() != null) {
+            publishAfterCommit(TokenRevokedEvent.token(claims.id(), claims.expiresAt()));
+        }
+    }
+
+    /**
+     * Revokes every access token issued to the user so far (password reset, stolen refresh
+     * token). Tokens issued later in the same second are still accepted.
+     */
+    public void revokeUser(UUID userId) {
+        Instant now = Instant.now();
+        publishAfterCommit(TokenRevokedEvent.user(userId, now, now.plusSeconds(appProperties.getJwtExpirationSeconds())));
+    }
+
+    private void publishAfterCommit(TokenRevokedEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            tokenRevocationPublisher.publishTokenRevoked(event);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                tokenRevocationPublisher.publishTokenRevoked(event);
+            }
+        });
+    }
+}
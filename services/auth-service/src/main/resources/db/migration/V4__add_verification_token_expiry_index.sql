@@ -0,0 +1,2 @@
+-- Supports the scheduled purge of expired verification tokens
+CREATE INDEX IF NOT EXISTS idx_verification_token_expiry_date ON verification_token(expiry_date);
@@ -0,0 +1,9 @@
+-- Reset tokens are now stored as SHA-256 hex digests; outstanding plaintext tokens can't be
+-- converted, so they are dropped (users can request a new link).
+DELETE FROM verification_token;
+
+ALTER TABLE verification_token ALTER COLUMN token TYPE VARCHAR(64);
+
+-- Only ever probed by equality, so a hash index is smaller and cheaper than the B-tree
+DROP INDEX IF EXISTS idx_verification_token_token;
+CREATE INDEX IF NOT EXISTS idx_verification_token_token_hash ON verification_token USING HASH (token);
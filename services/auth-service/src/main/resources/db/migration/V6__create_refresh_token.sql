@@ -0,0 +1,14 @@
+-- Rotating refresh tokens: one row per issued token (SHA-256 hex), grouped by login (family_id)
+CREATE TABLE IF NOT EXISTS refresh_token (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    token_hash VARCHAR(64) NOT NULL,
+    family_id UUID NOT NULL,
+    user_id UUID NOT NULL REFERENCES mmhc_user(id) ON DELETE CASCADE,
+    expires_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    used_at TIMESTAMP WITH TIME ZONE
+);
+
+CREATE INDEX IF NOT EXISTS idx_refresh_token_token_hash ON refresh_token USING HASH (token_hash);
+CREATE INDEX IF NOT EXISTS idx_refresh_token_family_id ON refresh_token(family_id);
+CREATE INDEX IF NOT EXISTS idx_refresh_token_user_id ON refresh_token(user_id);
+CREATE INDEX IF NOT EXISTS idx_refresh_token_expires_at ON refresh_token(expires_at);
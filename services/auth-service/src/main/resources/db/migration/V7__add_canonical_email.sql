@@ -0,0 +1,23 @@
+-- Canonical email (trimmed, lower-cased; see User.canonicalEmail): every lookup by email is
+-- one probe of this unique index, whatever casing the caller passes in
+ALTER TABLE mmhc_user ADD COLUMN IF NOT EXISTS email_canonical VARCHAR(255);
+
+-- Same rule as User.canonicalEmail: Java's trim() strips every char up to U+0020 (tabs, newlines,
+-- ...), not just spaces as btrim() does. Text can't hold U+0000, so \x01-\x20 covers the rest.
+-- lower() matches toLowerCase(Locale.ROOT) for ASCII under any collation, and for other letters
+-- under the UTF-8 collation the database is created with.
+UPDATE mmhc_user SET email_canonical = lower(regexp_replace(email, '^[\x01-\x20]+|[\x01-\x20]+$', '', 'g'))
+WHERE email_canonical IS NULL;
+
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM mmhc_user GROUP BY email_canonical HAVING count(*) > 1) THEN
+        RAISE EXCEPTION 'mmhc_user has emails that differ only in case or surrounding spaces; merge those accounts, then rerun';
+    END IF;
+END $$;
+
+ALTER TABLE mmhc_user ALTER COLUMN email_canonical SET NOT NULL;
+CREATE UNIQUE INDEX IF NOT EXISTS ux_mmhc_user_email_canonical ON mmhc_user(email_canonical);
+
+-- Duplicated the index behind email's UNIQUE constraint, and lookups no longer use email
+DROP INDEX IF EXISTS idx_mmhc_user_email;
@@ -0,0 +1,5 @@
+-- Creation time, filled in by the database for every insert path (JPA save and the OAuth2
+-- upsert). When its user-id existence filter misses, User Service reads rows created since its
+-- last sync by it, so new users are never reported missing. Nothing polls it in the background.
+ALTER TABLE mmhc_user ADD COLUMN IF NOT EXISTS created_at TIMESTAMPTZ NOT NULL DEFAULT now();
+CREATE INDEX IF NOT EXISTS idx_mmhc_user_created_at ON mmhc_user(created_at);
@@ -0,0 +1,121 @@
+package com.ubcmmhcsoftware.auth.config;
+
+import com.ubcmmhcsoftware.auth.exception.PasswordHashingOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedPasswordEncoderTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private BoundedPasswordEncoder encoder;
+
+    /** Stand-in for BCrypt whose "slow" hashes wait for the test to release them. */
+    private final PasswordEncoder delegate = new PasswordEncoder() {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            if (rawPassword.toString().startsWith("slow")) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (rawPassword.toString().equals("boom")) {
+                throw new IllegalArgumentException("bad input");
+            }
+            return "hash:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encodedPassword.equals("hash:" + rawPassword);
+        }
+
+        @Override
+        public boolean upgradeEncoding(String encodedPassword) {
+            return encodedPassword.startsWith("old:");
+        }
+    };
+
+    @AfterEach
+    void close() {
+        release.countDown();
+        encoder.close();
+    }
+
+    @Test
+    void delegatesOnThePool() {
+        encoder = new BoundedPasswordEncoder(delegate, 2, 4, 1, meterRegistry);
+
+        assertThat(encoder.encode("secret")).isEqualTo("hash:secret");
+        assertThat(encoder.matches("secret", "hash:secret")).isTrue();
+        assertThat(encoder.matches("secret", "hash:other")).isFalse();
+        assertThat(encoder.upgradeEncoding("old:x")).isTrue();
+        assertThat(meterRegistry.get("auth.password.hashing.duration").tag("operation", "encode").timer().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("auth.password.hashing.duration").tag("operation", "matches").timer().count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void rethrowsTheDelegatesRuntimeExceptions() {
+        encoder = new BoundedPasswordEncoder(delegate, 1, 1, 1, meterRegistry);
+
+        assertThatThrownBy(() -> encoder.encode("boom"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("bad input");
+    }
+
+    @Test
+    void shedsWorkBeyondThePoolAndQueue() throws Exception {
+        encoder = new BoundedPasswordEncoder(delegate, 1, 1, 7, meterRegistry);
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("slow-1"));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("slow-2"));
+        awaitQueueDepth(1);
+
+        assertThatThrownBy(() -> encoder.encode("fast"))
+                .isInstanceOf(PasswordHashingOverloadedException.class)
+                .extracting(e -> ((PasswordHashingOverloadedException) e).getRetryAfterSeconds())
+                .isEqualTo(7L);
+        assertThat(meterRegistry.get("auth.password.hashing.rejected").counter().count()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("hash:slow-1");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("hash:slow-2");
+        assertThat(encoder.encode("fast")).isEqualTo("hash:fast");
+    }
+
+    @Test
+    void zeroQueueCapacityOnlyAdmitsIdleThreads() throws Exception {
+        encoder = new BoundedPasswordEncoder(delegate, 1, 0, 1, meterRegistry);
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("slow"));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> encoder.matches("x", "hash:x")).isInstanceOf(PasswordHashingOverloadedException.class);
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("hash:slow");
+    }
+
+    private void awaitQueueDepth(int depth) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("auth.password.hashing.queue.depth").gauge().value() < depth) {
+            assertThat(System.nanoTime()).as("queue never reached " + depth).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.ubcmmhcsoftware.auth.config;
+
+import com.ubcmmhcsoftware.auth.entity.Role;
+import com.ubcmmhcsoftware.auth.enums.RoleEnum;
+import com.ubcmmhcsoftware.auth.repository.UserRepository;
+import com.ubcmmhcsoftware.auth.service.RoleRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.client.userinfo.DefaultOAuth2UserService;
+import org.springframework.security.oauth2.client.userinfo.OAuth2UserRequest;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CustomOAuth2UserServiceTest {
+
+    private static final String EMAIL = "a@example.org";
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final RoleRegistry roleRegistry = mock(RoleRegistry.class);
+    private final CustomOAuth2UserService service = new CustomOAuth2UserService(userRepository, roleRegistry);
+    private final UUID existingId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        DefaultOAuth2UserService delegate = mock(DefaultOAuth2UserService.class);
+        when(delegate.loadUser(any())).thenReturn(new DefaultOAuth2User(List.of(),
+                Map.of("sub", "google-1", "email", EMAIL, "name", "A"), "sub"));
+        ReflectionTestUtils.setField(service, "delegate", delegate);
+
+        Role role = new Role();
+        role.setId(1L);
+        when(roleRegistry.reference(RoleEnum.ROLE_USER)).thenReturn(Optional.of(role));
+    }
+
+    @Test
+    void returningUserIsNotUpserted() {
+        when(userRepository.findOAuth2LinksByEmail(EMAIL)).thenReturn(List.of(link("google-1")));
+
+        assertThat(load().getId()).isEqualTo(existingId);
+        verify(userRepository, never()).upsertOAuth2User(any(), anyString(), any(), any(), any());
+    }
+
+    @Test
+    void createsANewUser() {
+        when(userRepository.findOAuth2LinksByEmail(EMAIL)).thenReturn(List.of());
+        when(userRepository.upsertOAuth2User(any(), eq(EMAIL), any(), eq("google-1"), eq(1L))).thenReturn(1);
+
+        CustomUserDetails details = load();
+
+        assertThat(details.getId()).isNotEqualTo(existingId);
+        assertThat(details.getAuthorities()).extracting(Object::toString).containsExactly("ROLE_USER");
+    }
+
+    @Test
+    void lostRaceReadsTheConcurrentlyCreatedUser() {
+        when(userRepository.findOAuth2LinksByEmail(EMAIL)).thenReturn(List.of(), List.of(link("google-1")));
+        when(userRepository.upsertOAuth2User(any(), eq(EMAIL), any(), any(), any())).thenReturn(0);
+
+        assertThat(load().getId()).isEqualTo(existingId);
+        verify(userRepository, times(1)).upsertOAuth2User(any(), anyString(), any(), any(), any());
+    }
+
+    @Test
+    void lostRaceToADeletedUserRetriesTheUpsert() {
+        when(userRepository.findOAuth2LinksByEmail(EMAIL)).thenReturn(List.of());
+        when(userRepository.upsertOAuth2User(any(), eq(EMAIL), any(), any(), any())).thenReturn(0, 1);
+
+        assertThat(load().getId()).isNotEqualTo(existingId);
+    }
+
+    @Test
+    void failsAsAnAuthenticationErrorWhenTheUserNeverAppears() {
+        when(userRepository.findOAuth2LinksByEmail(EMAIL)).thenReturn(List.of());
+        when(userRepository.upsertOAuth2User(any(), eq(EMAIL), any(), any(), any())).thenReturn(0);
+
+        assertThatThrownBy(this::load)
+                .isInstanceOf(OAuth2AuthenticationException.class)
+                .extracting(e -> ((OAuth2AuthenticationException) e).getError().getErrorCode())
+                .isEqualTo("server_error");
+    }
+
+    private CustomUserDetails load() {
+        return ((CustomOAuth2User) service.loadUser(request())).getUserDetails();
+    }
+
+    private UserRepository.OAuth2Link link(String googleId) {
+        return new UserRepository.OAuth2Link(existingId, googleId, RoleEnum.ROLE_USER);
+    }
+
+    private static OAuth2UserRequest request() {
+        ClientRegistration registration = ClientRegistration.withRegistrationId("google")
+                .clientId("client")
+                .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+                .redirectUri("http://localhost/callback")
+                .authorizationUri("http://localhost/authorize")
+                .tokenUri("http://localhost/token")
+                .build();
+        return new OAuth2UserRequest(registration, new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER,
+                "token", Instant.now(), Instant.now().plusSeconds(60)));
+    }
+}
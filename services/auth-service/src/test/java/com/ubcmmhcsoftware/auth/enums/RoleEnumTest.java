@@ -0,0 +1,28 @@
+package com.ubcmmhcsoftware.auth.enums;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RoleEnumTest {
+
+    @Test
+    void bitPositionsMatchWhatTheGatewayDecodes() {
+        // Same order as ForwardedClaims.ROLE_NAMES in the gateway; append only
+        assertThat(Arrays.stream(RoleEnum.values()).map(Enum::name).toList()).containsExactly(
+                "ROLE_USER", "ROLE_BLOG_EDITOR", "ROLE_BLOG_MANAGER", "ROLE_ADMIN", "ROLE_SUPERADMIN");
+    }
+
+    @Test
+    void maskRoundTripsAndIgnoresOtherAuthorities() {
+        long mask = RoleEnum.toMask(List.of("ROLE_ADMIN", "ROLE_USER", "SCOPE_profile"));
+
+        assertThat(mask).isEqualTo(0b01001);
+        assertThat(RoleEnum.fromMask(mask)).containsExactly("ROLE_USER", "ROLE_ADMIN");
+        assertThat(RoleEnum.fromMask(0)).isEmpty();
+        assertThat(RoleEnum.fromMask(1L << 40 | 2)).containsExactly("ROLE_BLOG_EDITOR");
+    }
+}
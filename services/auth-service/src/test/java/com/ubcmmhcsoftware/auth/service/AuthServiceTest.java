@@ -0,0 +1,74 @@
+package com.ubcmmhcsoftware.auth.service;
+
+import com.ubcmmhcsoftware.auth.config.AppProperties;
+import com.ubcmmhcsoftware.auth.repository.UserRepository;
+import com.ubcmmhcsoftware.auth.repository.VerificationTokenRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class AuthServiceTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final VerificationTokenRepository verificationTokenRepository = mock(VerificationTokenRepository.class);
+    private final EmailService emailService = mock(EmailService.class);
+    private final AuthService authService = authService();
+
+    private AuthService authService() {
+        AppProperties appProperties = mock(AppProperties.class);
+        when(appProperties.getFrontendUrl()).thenReturn("https://example.org");
+        return new AuthService(userRepository, mock(PasswordEncoder.class), mock(AuthenticationManager.class),
+                verificationTokenRepository, emailService, mock(RefreshTokenService.class),
+                mock(RoleRegistry.class), appProperties);
+    }
+
+    @Test
+    void forgotPasswordMailsTheStoredAddress() {
+        when(verificationTokenRepository.upsertForEmail(any(), eq(" Alice@X.COM "), anyString(), any()))
+                .thenReturn(Optional.of("alice@x.com"));
+
+        authService.forgotPassword(" Alice@X.COM ");
+
+        verify(emailService).sendPasswordResetEmail(eq("alice@x.com"), anyString(),
+                startsWith("https://example.org/reset-password?token="));
+    }
+
+    @Test
+    void forgotPasswordStoresOnlyTheHashOfTheMailedToken() {
+        when(verificationTokenRepository.upsertForEmail(any(), anyString(), anyString(), any()))
+                .thenReturn(Optional.of("alice@x.com"));
+
+        authService.forgotPassword("alice@x.com");
+
+        ArgumentCaptor<String> stored = ArgumentCaptor.forClass(String.class);
+        verify(verificationTokenRepository).upsertForEmail(any(), eq("alice@x.com"), stored.capture(), any());
+        ArgumentCaptor<String> link = ArgumentCaptor.forClass(String.class);
+        verify(emailService).sendPasswordResetEmail(anyString(), anyString(), link.capture());
+        String token = link.getValue().substring(link.getValue().indexOf("token=") + "token=".length());
+
+        assertThat(stored.getValue()).isEqualTo(OpaqueTokens.hash(token)).isNotEqualTo(token);
+    }
+
+    @Test
+    void forgotPasswordMailsNothingForAnUnknownAddress() {
+        when(verificationTokenRepository.upsertForEmail(any(), anyString(), anyString(), any()))
+                .thenReturn(Optional.empty());
+
+        authService.forgotPassword("nobody@x.com");
+
+        verifyNoInteractions(emailService);
+    }
+}
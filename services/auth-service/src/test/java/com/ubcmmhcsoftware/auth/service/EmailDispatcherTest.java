@@ -0,0 +1,224 @@
+package com.ubcmmhcsoftware.auth.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.ubcmmhcsoftware.auth.config.AppProperties;
+import com.ubcmmhcsoftware.auth.service.EmailDispatcher.OutboundEmail;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.ToIntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the dispatcher against a local HTTP stub standing in for Brevo's /smtp/email.
+ */
+class EmailDispatcherTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<Call> calls = new CopyOnWriteArrayList<>();
+
+    private HttpServer brevo;
+    private volatile ToIntFunction<JsonNode> status = body -> 201;
+    private SimpleMeterRegistry meterRegistry;
+    private EmailDispatcher dispatcher;
+
+    private record Call(long atNanos, JsonNode body) {
+        List<String> recipients() {
+            List<String> to = new ArrayList<>();
+            JsonNode versions = body.path("messageVersions");
+            if (versions.isArray()) {
+                versions.forEach(v -> to.add(v.path("to").get(0).path("email").asText()));
+            } else {
+                to.add(body.path("to").get(0).path("email").asText());
+            }
+            return to;
+        }
+    }
+
+    @BeforeEach
+    void startBrevo() throws IOException {
+        brevo = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        brevo.createContext("/smtp/email", this::handle);
+        brevo.start();
+    }
+
+    @AfterEach
+    void stop() {
+        if (dispatcher != null) {
+            dispatcher.shutdown();
+        }
+        brevo.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        JsonNode body = objectMapper.readTree(exchange.getRequestBody());
+        calls.add(new Call(System.nanoTime(), body));
+        int code = status.applyAsInt(body);
+        byte[] response = (code < 300 ? "{\"messageId\":\"x\"}" : "{\"code\":\"error\"}").getBytes();
+        exchange.sendResponseHeaders(code, response.length);
+        exchange.getResponseBody().write(response);
+        exchange.close();
+    }
+
+    @Test
+    void sendsQueuedEmailsAsOneBatch() throws InterruptedException {
+        CountDownLatch firstCallSeen = new CountDownLatch(1);
+        CountDownLatch releaseFirstCall = new CountDownLatch(1);
+        status = body -> {
+            if (calls.size() == 1) {
+                firstCallSeen.countDown();
+                await(releaseFirstCall);
+            }
+            return 201;
+        };
+        dispatcher = dispatcher(1, 10, 3, 1000);
+
+        dispatcher.submit(email("a@x.com"));
+        assertThat(firstCallSeen.await(5, TimeUnit.SECONDS)).isTrue();
+        dispatcher.submit(email("b@x.com"));
+        dispatcher.submit(email("c@x.com"));
+        dispatcher.submit(email("d@x.com"));
+        releaseFirstCall.countDown();
+
+        waitFor(() -> count("sent") == 4);
+        assertThat(calls).hasSize(2);
+        assertThat(calls.get(1).recipients()).containsExactly("b@x.com", "c@x.com", "d@x.com");
+        assertThat(calls.get(1).body().path("messageVersions").get(0).path("subject").asText()).isEqualTo("Subject b@x.com");
+    }
+
+    @Test
+    void retriesServerErrorsWithBackoff() {
+        status = body -> calls.size() <= 2 ? 503 : 201;
+        dispatcher = dispatcher(1, 10, 5, 100);
+
+        dispatcher.submit(email("a@x.com"));
+
+        waitFor(() -> count("sent") == 1);
+        assertThat(calls).hasSize(3);
+        assertThat(count("retried")).isEqualTo(2);
+        // Equal jitter: at least half the base delay, then at least half of double that
+        assertThat(millisBetween(0, 1)).isGreaterThanOrEqualTo(50);
+        assertThat(millisBetween(1, 2)).isGreaterThanOrEqualTo(100);
+    }
+
+    @Test
+    void givesUpAfterMaxAttempts() {
+        status = body -> 500;
+        dispatcher = dispatcher(1, 10, 3, 10);
+
+        dispatcher.submit(email("a@x.com"));
+
+        waitFor(() -> count("failed") == 1);
+        assertThat(calls).hasSize(3);
+    }
+
+    @Test
+    void rejectedBatchIsResentOneByOneSoOnlyTheBadEmailFails() throws InterruptedException {
+        CountDownLatch firstCallSeen = new CountDownLatch(1);
+        CountDownLatch releaseFirstCall = new CountDownLatch(1);
+        status = body -> {
+            if (calls.size() == 1) {
+                firstCallSeen.countDown();
+                await(releaseFirstCall);
+                return 201;
+            }
+            boolean hasBad = body.toString().contains("bad@");
+            return hasBad ? 400 : 201;
+        };
+        dispatcher = dispatcher(1, 10, 3, 1000);
+
+        dispatcher.submit(email("first@x.com"));
+        assertThat(firstCallSeen.await(5, TimeUnit.SECONDS)).isTrue();
+        dispatcher.submit(email("a@x.com"));
+        dispatcher.submit(email("bad@x.com"));
+        dispatcher.submit(email("b@x.com"));
+        releaseFirstCall.countDown();
+
+        waitFor(() -> count("sent") + count("failed") == 4);
+        assertThat(count("sent")).isEqualTo(3);
+        assertThat(count("failed")).isEqualTo(1);
+        assertThat(count("retried")).isZero();
+        assertThat(calls.get(1).recipients()).hasSize(3);
+        assertThat(calls.subList(2, calls.size())).allMatch(call -> call.recipients().size() == 1);
+    }
+
+    @Test
+    void retriesAreKeptWhenTheQueueIsFull() throws InterruptedException {
+        CountDownLatch retryPending = new CountDownLatch(1);
+        status = body -> {
+            if (calls.size() == 1) {
+                retryPending.countDown();
+                return 503;
+            }
+            return 201;
+        };
+        dispatcher = dispatcher(1, 1, 3, 200);
+
+        dispatcher.submit(email("a@x.com"));
+        assertThat(retryPending.await(5, TimeUnit.SECONDS)).isTrue();
+        // Fill the queue (capacity 1) and overflow it while the retry is waiting
+        waitFor(() -> dispatcher.submit(email("b@x.com")));
+        while (dispatcher.submit(email("overflow@x.com"))) {
+            Thread.onSpinWait();
+        }
+
+        waitFor(() -> calls.stream().anyMatch(call -> call.recipients().contains("a@x.com") && calls.indexOf(call) > 0));
+        assertThat(count("rejected")).isGreaterThanOrEqualTo(1);
+    }
+
+    private EmailDispatcher dispatcher(int workers, int queueCapacity, int maxAttempts, long retryBaseMillis) {
+        AppProperties appProperties = new AppProperties();
+        ReflectionTestUtils.setField(appProperties, "emailQueueCapacity", queueCapacity);
+        ReflectionTestUtils.setField(appProperties, "emailWorkers", workers);
+        ReflectionTestUtils.setField(appProperties, "emailBatchSize", 50);
+        ReflectionTestUtils.setField(appProperties, "emailMaxAttempts", maxAttempts);
+        ReflectionTestUtils.setField(appProperties, "emailRetryBaseMillis", retryBaseMillis);
+        ReflectionTestUtils.setField(appProperties, "emailRetryMaxMillis", 60_000L);
+        meterRegistry = new SimpleMeterRegistry();
+        return new EmailDispatcher("http://localhost:" + brevo.getAddress().getPort(), "test-key",
+                "sender@x.com", appProperties, meterRegistry);
+    }
+
+    private static OutboundEmail email(String to) {
+        return new OutboundEmail(to, "Subject " + to, "<p>Hello " + to + "</p>");
+    }
+
+    private double count(String counter) {
+        return meterRegistry.get("auth.email." + counter).counter().count();
+    }
+
+    private long millisBetween(int first, int second) {
+        return TimeUnit.NANOSECONDS.toMillis(calls.get(second).atNanos() - calls.get(first).atNanos());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitFor(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("condition within 5s").isLessThan(deadline);
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.ubcmmhcsoftware.auth.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OpaqueTokensTest {
+
+    @Test
+    void tokensAreRandomAndUrlSafe() {
+        String token = OpaqueTokens.generate();
+
+        assertThat(token).hasSize(43).matches("[A-Za-z0-9_-]+");
+        assertThat(OpaqueTokens.generate()).isNotEqualTo(token);
+        assertThat(OpaqueTokens.generateId()).hasSize(16).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void hashIsSha256Hex() {
+        // SHA-256("abc")
+        assertThat(OpaqueTokens.hash("abc"))
+                .isEqualTo("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad");
+        assertThat(OpaqueTokens.hash("abc")).isEqualTo(OpaqueTokens.hash("abc"));
+    }
+
+    @Test
+    void matchesComparesWholeHashes() {
+        String hash = OpaqueTokens.hash("token");
+
+        assertThat(OpaqueTokens.matches(hash, OpaqueTokens.hash("token"))).isTrue();
+        assertThat(OpaqueTokens.matches(hash, OpaqueTokens.hash("other"))).isFalse();
+        assertThat(OpaqueTokens.matches(hash, hash.substring(0, 63))).isFalse();
+        assertThat(OpaqueTokens.matches(hash, hash.substring(0, 63) + "x")).isFalse();
+    }
+}
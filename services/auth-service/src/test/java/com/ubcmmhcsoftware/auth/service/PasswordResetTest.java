@@ -0,0 +1,140 @@
+package com.ubcmmhcsoftware.auth.service;
+
+import com.ubcmmhcsoftware.auth.dto.ResetPasswordDTO;
+import com.ubcmmhcsoftware.auth.entity.User;
+import com.ubcmmhcsoftware.auth.entity.VerificationToken;
+import com.ubcmmhcsoftware.auth.exception.InvalidTokenException;
+import com.ubcmmhcsoftware.auth.repository.RefreshTokenRepository;
+import com.ubcmmhcsoftware.auth.repository.UserRepository;
+import com.ubcmmhcsoftware.auth.repository.VerificationTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * resetPassword against the local profile's H2 schema: tokens are looked up by their hash,
+ * and a successful reset consumes the token and ends every session.
+ */
+@SpringBootTest
+@ActiveProfiles("local")
+class PasswordResetTest {
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private VerificationTokenRepository verificationTokenRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @MockitoBean
+    private TokenRevocationService tokenRevocationService;
+
+    private final String token = OpaqueTokens.generate();
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setEmail(UUID.randomUUID() + "@example.org");
+        user.setPassword(passwordEncoder.encode("old-password"));
+        user = userRepository.save(user);
+    }
+
+    @Test
+    void tokenIsStoredAndLookedUpByItsHash() {
+        UUID id = storeToken(Instant.now().plusSeconds(600));
+
+        assertThat(verificationTokenRepository.findById(id).orElseThrow().getToken())
+                .isEqualTo(OpaqueTokens.hash(token))
+                .isNotEqualTo(token);
+        assertThat(verificationTokenRepository.findRowByTokenHash(token)).isEmpty();
+        assertThat(verificationTokenRepository.findRowByTokenHash(OpaqueTokens.hash(token))).isPresent();
+    }
+
+    @Test
+    void resetConsumesTheTokenAndEndsEverySession() {
+        UUID id = storeToken(Instant.now().plusSeconds(600));
+        String session = refreshTokenService.issue(user.getId());
+
+        authService.resetPassword(request(token, "new-password"));
+
+        assertThat(passwordEncoder.matches("new-password",
+                userRepository.findById(user.getId()).orElseThrow().getPassword())).isTrue();
+        assertThat(verificationTokenRepository.findById(id)).isEmpty();
+        assertThat(refreshTokenRepository.findByTokenHash(OpaqueTokens.hash(session))).isEmpty();
+        verify(tokenRevocationService).revokeUser(user.getId());
+        assertThatThrownBy(() -> authService.resetPassword(request(token, "again")))
+                .isInstanceOf(InvalidTokenException.class);
+    }
+
+    @Test
+    void wrongTokenIsRejected() {
+        UUID id = storeToken(Instant.now().plusSeconds(600));
+
+        assertThatThrownBy(() -> authService.resetPassword(request(OpaqueTokens.generate(), "new-password")))
+                .isInstanceOf(InvalidTokenException.class);
+        // The stored hash itself is not a valid token either
+        assertThatThrownBy(() -> authService.resetPassword(request(OpaqueTokens.hash(token), "new-password")))
+                .isInstanceOf(InvalidTokenException.class);
+        assertThatThrownBy(() -> authService.resetPassword(request(" ", "new-password")))
+                .isInstanceOf(InvalidTokenException.class);
+
+        assertThat(verificationTokenRepository.findById(id)).isPresent();
+        assertUnchanged();
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        storeToken(Instant.now().minusSeconds(1));
+
+        assertThatThrownBy(() -> authService.resetPassword(request(token, "new-password")))
+                .isInstanceOf(InvalidTokenException.class)
+                .hasMessageContaining("expired");
+        assertUnchanged();
+    }
+
+    private void assertUnchanged() {
+        assertThat(passwordEncoder.matches("old-password",
+                userRepository.findById(user.getId()).orElseThrow().getPassword())).isTrue();
+        verify(tokenRevocationService, never()).revokeUser(any());
+    }
+
+    private UUID storeToken(Instant expiryDate) {
+        VerificationToken stored = new VerificationToken();
+        stored.setToken(OpaqueTokens.hash(token));
+        stored.setUser(user);
+        stored.setExpiryDate(expiryDate);
+        return verificationTokenRepository.save(stored).getId();
+    }
+
+    private static ResetPasswordDTO request(String token, String newPassword) {
+        ResetPasswordDTO dto = new ResetPasswordDTO();
+        dto.setToken(token);
+        dto.setNewPassword(newPassword);
+        return dto;
+    }
+}
@@ -0,0 +1,131 @@
+package com.ubcmmhcsoftware.auth.service;
+
+import com.ubcmmhcsoftware.auth.config.CustomUserDetails;
+import com.ubcmmhcsoftware.auth.entity.RefreshToken;
+import com.ubcmmhcsoftware.auth.exception.InvalidTokenException;
+import com.ubcmmhcsoftware.auth.repository.RefreshTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Rotation, reuse detection and the reuse grace window, against the local profile's H2 schema
+ * so the conditional markUsed update runs for real.
+ */
+@SpringBootTest
+@ActiveProfiles("local")
+class RefreshTokenServiceTest {
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @MockitoBean
+    private CustomUserDetailsService customUserDetailsService;
+
+    @MockitoBean
+    private TokenRevocationService tokenRevocationService;
+
+    private final UUID userId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        when(customUserDetailsService.loadUserById(any())).thenReturn(mock(CustomUserDetails.class));
+    }
+
+    @Test
+    void rotateReplacesTheTokenWithinTheSameFamily() {
+        String first = refreshTokenService.issue(userId);
+
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(first);
+
+        assertThat(rotation.refreshToken()).isNotEqualTo(first);
+        RefreshToken used = stored(first);
+        RefreshToken next = stored(rotation.refreshToken());
+        assertThat(used.getUsedAt()).isNotNull();
+        assertThat(next.getUsedAt()).isNull();
+        assertThat(next.getFamilyId()).isEqualTo(used.getFamilyId());
+        assertThat(refreshTokenService.rotate(rotation.refreshToken()).refreshToken()).isNotNull();
+    }
+
+    @Test
+    void reuseAfterTheGraceWindowRevokesTheWholeFamily() {
+        String first = refreshTokenService.issue(userId);
+        String second = refreshTokenService.rotate(first).refreshToken();
+        String otherSession = refreshTokenService.issue(userId);
+        backdateUse(first, Instant.now().minusSeconds(3600));
+
+        assertThatThrownBy(() -> refreshTokenService.rotate(first)).isInstanceOf(InvalidTokenException.class);
+
+        assertThat(refreshTokenRepository.findByTokenHash(OpaqueTokens.hash(first))).isEmpty();
+        assertThat(refreshTokenRepository.findByTokenHash(OpaqueTokens.hash(second))).isEmpty();
+        assertThatThrownBy(() -> refreshTokenService.rotate(second)).isInstanceOf(InvalidTokenException.class);
+        verify(tokenRevocationService).revokeUser(userId);
+        // Other logins of the same user are separate families and survive
+        assertThat(refreshTokenService.rotate(otherSession).refreshToken()).isNotNull();
+    }
+
+    @Test
+    void reuseWithinTheGraceWindowIsRefusedWithoutRevoking() {
+        String first = refreshTokenService.issue(userId);
+        String second = refreshTokenService.rotate(first).refreshToken();
+
+        assertThatThrownBy(() -> refreshTokenService.rotate(first)).isInstanceOf(InvalidTokenException.class);
+
+        verify(tokenRevocationService, never()).revokeUser(any());
+        assertThat(refreshTokenService.rotate(second).refreshToken()).isNotNull();
+    }
+
+    @Test
+    void unknownAndExpiredTokensAreRejected() {
+        assertThatThrownBy(() -> refreshTokenService.rotate("not-a-token")).isInstanceOf(InvalidTokenException.class);
+        assertThatThrownBy(() -> refreshTokenService.rotate(null)).isInstanceOf(InvalidTokenException.class);
+
+        String expired = refreshTokenService.issue(userId);
+        RefreshToken token = stored(expired);
+        token.setExpiresAt(Instant.now().minusSeconds(1));
+        refreshTokenRepository.save(token);
+
+        assertThatThrownBy(() -> refreshTokenService.rotate(expired))
+                .isInstanceOf(InvalidTokenException.class)
+                .hasMessageContaining("expired");
+    }
+
+    @Test
+    void revokeEndsOnlyThatSession() {
+        String first = refreshTokenService.issue(userId);
+        String second = refreshTokenService.rotate(first).refreshToken();
+        String otherSession = refreshTokenService.issue(userId);
+
+        refreshTokenService.revoke(first);
+
+        assertThat(refreshTokenRepository.findByTokenHash(OpaqueTokens.hash(second))).isEmpty();
+        assertThat(refreshTokenRepository.findByTokenHash(OpaqueTokens.hash(otherSession))).isPresent();
+    }
+
+    private RefreshToken stored(String token) {
+        return refreshTokenRepository.findByTokenHash(OpaqueTokens.hash(token)).orElseThrow();
+    }
+
+    private void backdateUse(String token, Instant usedAt) {
+        RefreshToken used = stored(token);
+        used.setUsedAt(usedAt);
+        refreshTokenRepository.save(used);
+    }
+}
@@ -0,0 +1,69 @@
+package com.ubcmmhcsoftware.auth.service;
+
+import com.ubcmmhcsoftware.auth.config.AppProperties;
+import com.ubcmmhcsoftware.auth.event.TokenRevocationPublisher;
+import com.ubcmmhcsoftware.auth.event.TokenRevokedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TokenRevocationServiceTest {
+
+    private final TokenRevocationPublisher publisher = mock(TokenRevocationPublisher.class);
+    private final TokenRevocationService service = service();
+    private final UUID userId = UUID.randomUUID();
+
+    private TokenRevocationService service() {
+        AppProperties appProperties = mock(AppProperties.class);
+        when(appProperties.getJwtExpirationSeconds()).thenReturn(900L);
+        return new TokenRevocationService(mock(JWTService.class), publisher, appProperties);
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void publishesImmediatelyOutsideATransaction() {
+        service.revokeUser(userId);
+
+        verify(publisher).publishTokenRevoked(argThat(event -> userId.equals(event.userId())));
+    }
+
+    @Test
+    void publishesOnlyOnceTheTransactionCommits() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        service.revokeUser(userId);
+        verify(publisher, never()).publishTokenRevoked(any());
+
+        TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+        verify(publisher).publishTokenRevoked(argThat(event -> userId.equals(event.userId())
+                && event.expiresAt().equals(event.issuedBefore().plusSeconds(900))));
+    }
+
+    @Test
+    void publishesNothingWhenTheTransactionRollsBack() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        service.revokeUser(userId);
+        TransactionSynchronizationUtils.invokeAfterCompletion(TransactionSynchronizationManager.getSynchronizations(),
+                TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        verify(publisher, never()).publishTokenRevoked(any(TokenRevokedEvent.class));
+    }
+}
@@ -1,14 +1,22 @@
 package com.ubcmmhcsoftware.membership.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.stripe.exception.StripeException;
 import com.ubcmmhcsoftware.membership.dto.CheckoutSessionDTO;
+import com.ubcmmhcsoftware.membership.dto.MembershipCheckResponse;
 import com.ubcmmhcsoftware.membership.dto.MembershipRegistrationDTO;
+import com.ubcmmhcsoftware.membership.dto.MembershipStatusResponse;
+import com.ubcmmhcsoftware.membership.dto.SerializedJson;
 import com.ubcmmhcsoftware.membership.entity.Membership;
 import com.ubcmmhcsoftware.membership.filter.GatewayClaimAuthenticationFilter.GatewayUser;
 import com.ubcmmhcsoftware.membership.service.MembershipService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import jakarta.validation.Valid;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -20,12 +28,33 @@ import java.util.Optional;
 import java.util.UUID;
 
 @RestController
-@RequiredArgsConstructor
 @RequestMapping("/api/membership")
 @Slf4j
 public class MembershipController {
 
     private final MembershipService membershipService;
+    private final ObjectMapper objectMapper;
+
+    // /check only ever returns one of two bodies, so both are serialized up front
+    private final SerializedJson checkActive;
+    private final SerializedJson checkInactive;
+    // /status bodies keyed by their content, so a changed membership simply misses; nothing to evict
+    private final Cache<MembershipStatusResponse, SerializedJson> statusBodies;
+
+    public MembershipController(MembershipService membershipService,
+                                ObjectMapper objectMapper,
+                                @Value("${app.membership-status-cache.max-size:10000}") long statusCacheMaxSize,
+                                MeterRegistry meterRegistry) {
+        this.membershipService = membershipService;
+        this.objectMapper = objectMapper;
+        this.checkActive = SerializedJson.of(objectMapper, new MembershipCheckResponse(true));
+        this.checkInactive = SerializedJson.of(objectMapper, new MembershipCheckResponse(false));
+        this.statusBodies = Caffeine.newBuilder()
+                .maximumSize(statusCacheMaxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, statusBodies, "membership.status");
+    }
 
     @PostMapping("/register")
     public ResponseEntity<?> registerMembership(@Valid @RequestBody MembershipRegistrationDTO dto,
@@ -65,18 +94,14 @@ public class MembershipController {
                     .body(Map.of("message", "No membership found"));
         }
 
-        Membership m = membership.get();
-        return ResponseEntity.ok(Map.of(
-                "active", m.isActive(),
-                "membershipType", m.getMembershipType().name(),
-                "endDate", m.getEndDate() != null ? m.getEndDate().toString() : "",
-                "verifiedAt", m.getVerifiedAt() != null ? m.getVerifiedAt().toString() : ""));
+        // Typed body with an ETag; an unchanged membership revalidates to 304
+        return statusBodies.get(MembershipStatusResponse.from(membership.get()),
+                status -> SerializedJson.of(objectMapper, status)).toResponse();
     }
 
     @GetMapping("/check")
-    public ResponseEntity<?> checkMembership(@RequestParam String email) {
-        boolean hasActive = membershipService.hasActiveMembership(email);
-        return ResponseEntity.ok(Map.of("active", hasActive));
+    public ResponseEntity<byte[]> checkMembership(@RequestParam String email) {
+        return (membershipService.hasActiveMembership(email) ? checkActive : checkInactive).toResponse();
     }
 
     @GetMapping("/my-status")
@@ -0,0 +1,7 @@
+package com.ubcmmhcsoftware.membership.dto;
+
+/**
+ * Body of GET /api/membership/check.
+ */
+public record MembershipCheckResponse(boolean active) {
+}
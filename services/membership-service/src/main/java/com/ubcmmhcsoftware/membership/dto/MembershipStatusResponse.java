@@ -0,0 +1,17 @@
+package com.ubcmmhcsoftware.membership.dto;
+
+import com.ubcmmhcsoftware.membership.entity.Membership;
+
+/**
+ * Body of GET /api/membership/status. Dates are ISO strings, or "" when not set.
+ */
+public record MembershipStatusResponse(boolean active, String membershipType, String endDate, String verifiedAt) {
+
+    public static MembershipStatusResponse from(Membership m) {
+        return new MembershipStatusResponse(
+                m.isActive(),
+                m.getMembershipType().name(),
+                m.getEndDate() != null ? m.getEndDate().toString() : "",
+                m.getVerifiedAt() != null ? m.getVerifiedAt().toString() : "");
+    }
+}
@@ -0,0 +1,74 @@
+package com.ubcmmhcsoftware.user.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Producing the /api/user/info body: the Map.of(...) the controller used to build per
+ * request, the typed UserInfoResponse, and the bytes cached by UserService. Run with
+ * -prof gc for bytes allocated per op.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializedJsonBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private UserInfoResponse profile;
+    private SerializedJson cached;
+
+    @Setup
+    public void setUp() {
+        profile = UserInfoResponse.builder()
+                .sub(UUID.randomUUID().toString())
+                .email("member@example.org")
+                .name("Alex Member")
+                .newsletterSubscription(false)
+                .roles(List.of("ROLE_BLOG_EDITOR", "ROLE_USER"))
+                .build();
+        cached = SerializedJson.of(objectMapper, profile);
+    }
+
+    @Benchmark
+    public byte[] map() throws Exception {
+        return objectMapper.writeValueAsBytes(Map.of(
+                "sub", profile.getSub(),
+                "email", profile.getEmail(),
+                "name", profile.getName(),
+                "newsletterSubscription", profile.isNewsletterSubscription(),
+                "roles", profile.getRoles()));
+    }
+
+    @Benchmark
+    public byte[] typed() throws Exception {
+        return objectMapper.writeValueAsBytes(profile);
+    }
+
+    @Benchmark
+    public byte[] cached() {
+        return cached.body();
+    }
+
+    /** What a cache miss adds on top of serializing: hashing the body for the ETag. */
+    @Benchmark
+    public SerializedJson serializeWithEtag() {
+        return SerializedJson.of(objectMapper, profile);
+    }
+}
@@ -3,8 +3,9 @@ package com.ubcmmhcsoftware.user.controller;
 import com.ubcmmhcsoftware.user.entity.Role;
 import com.ubcmmhcsoftware.user.entity.RoleEnum;
 import com.ubcmmhcsoftware.user.entity.User;
-import com.ubcmmhcsoftware.user.repository.RoleRepository;
 import com.ubcmmhcsoftware.user.repository.UserRepository;
+import com.ubcmmhcsoftware.user.service.RoleRegistry;
+import com.ubcmmhcsoftware.user.service.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -26,7 +27,8 @@ import java.util.Map;
 public class AdminUserController {
 
     private final UserRepository userRepository;
-    private final RoleRepository roleRepository;
+    private final RoleRegistry roleRegistry;
+    private final UserService userService;
 
     /**
      * Gets the highest role level for the current admin from the database.
@@ -75,13 +77,13 @@ public class AdminUserController {
                     .body(Map.of("error", "User not found: " + userEmail));
         }
 
-        Role role = roleRepository.findByName(roleEnum).orElse(null);
+        Role role = roleRegistry.reference(roleEnum).orElse(null);
         if (role == null) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", "Role not found in database"));
         }
 
-        if (user.getUser_roles().contains(role)) {
+        if (user.getUser_roles().stream().anyMatch(existing -> existing.getName() == roleEnum)) {
             return ResponseEntity.ok(Map.of("message", "User already has this role"));
         }
 
@@ -96,6 +98,7 @@ public class AdminUserController {
 
         user.getUser_roles().add(role);
         userRepository.save(user);
+        userService.evictUserProfile(user.getId());
         log.info("Admin {} assigned role {} to user {}", adminDetails.getUsername(), roleEnum, userEmail);
 
         return ResponseEntity.ok(Map.of(
@@ -135,7 +138,7 @@ public class AdminUserController {
                     .body(Map.of("error", "User not found"));
         }
 
-        Role role = roleRepository.findByName(roleEnum).orElse(null);
+        Role role = roleRegistry.reference(roleEnum).orElse(null);
         if (role == null) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", "Role not found"));
@@ -150,8 +153,9 @@ public class AdminUserController {
                     .body(Map.of("error", "Cannot remove a role higher than your own"));
         }
 
-        user.getUser_roles().remove(role);
+        user.getUser_roles().removeIf(existing -> existing.getName() == roleEnum);
         userRepository.save(user);
+        userService.evictUserProfile(user.getId());
         log.info("Admin {} removed role {} from user {}", adminDetails.getUsername(), roleEnum, userEmail);
 
         return ResponseEntity.ok(Map.of(
@@ -1,6 +1,6 @@
 package com.ubcmmhcsoftware.user.controller;
 
-import com.ubcmmhcsoftware.user.repository.UserRepository;
+import com.ubcmmhcsoftware.user.service.UserExistenceFilter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -12,18 +12,19 @@ import java.util.UUID;
 
 /**
  * Internal API for service-to-service calls.
- * Used by Membership Service to verify user existence before linking.
+ * Used by Membership Service to verify user existence before linking; unknown ids are
+ * usually answered from {@link UserExistenceFilter} without a query.
  */
 @RestController
 @RequestMapping("/api/user/internal")
 @RequiredArgsConstructor
 public class InternalUserController {
 
-    private final UserRepository userRepository;
+    private final UserExistenceFilter userExistenceFilter;
 
     @GetMapping("/exists/{userId}")
     public ResponseEntity<Void> userExists(@PathVariable UUID userId) {
-        return userRepository.existsById(userId)
+        return userExistenceFilter.exists(userId)
                 ? ResponseEntity.ok().build()
                 : ResponseEntity.notFound().build();
     }
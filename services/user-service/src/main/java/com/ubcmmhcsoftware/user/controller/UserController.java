@@ -1,6 +1,5 @@
 package com.ubcmmhcsoftware.user.controller;
 
-import com.ubcmmhcsoftware.user.dto.UserInfoResponse;
 import com.ubcmmhcsoftware.user.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -9,7 +8,6 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.Map;
 import java.util.UUID;
 
 @RestController
@@ -21,19 +19,12 @@ public class UserController {
 
     private final UserService userService;
 
+    /**
+     * Contract: sub, email, name, newsletterSubscription, roles. Served from the profile
+     * cache as pre-serialized bytes; If-None-Match with the current ETag gets a 304.
+     */
     @GetMapping("/info")
-    public ResponseEntity<?> userInfo(@RequestHeader(X_USER_ID) String userId) {
-        UserInfoResponse profile = userService.getUserProfile(UUID.fromString(userId));
-
-        // Return as Map to match contract (sub, email, name, roles, newsletterSubscription)
-        Map<String, Object> body = Map.of(
-                "sub", profile.getSub(),
-                "email", profile.getEmail(),
-                "name", profile.getName() != null ? profile.getName() : "",
-                "newsletterSubscription", profile.isNewsletterSubscription(),
-                "roles", profile.getRoles()
-        );
-
-        return ResponseEntity.ok(body);
+    public ResponseEntity<byte[]> userInfo(@RequestHeader(X_USER_ID) String userId) {
+        return userService.getUserProfileJson(UUID.fromString(userId)).toResponse();
     }
 }
@@ -0,0 +1,57 @@
+package com.ubcmmhcsoftware.user.dto;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * A response body serialized once, with a strong ETag over its bytes. Returned from a GET
+ * handler via {@link #toResponse()}, Spring answers a matching If-None-Match with 304 and
+ * no body.
+ *
+ * <p>membership-service has an identical copy (the services share no code module), so change
+ * both together.
+ */
+public record SerializedJson(byte[] body, String etag) {
+
+    private static final int ETAG_BYTES = 16;
+
+    public static SerializedJson of(ObjectMapper objectMapper, Object value) {
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(value);
+            return new SerializedJson(body, etag(body));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 200 with the cached bytes. no-cache (not no-store) so the browser keeps the body
+     * and revalidates it with If-None-Match on every call.
+     */
+    public ResponseEntity<byte[]> toResponse() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(etag)
+                .body(body);
+    }
+
+    private static String etag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(Arrays.copyOf(digest, ETAG_BYTES)) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -1,12 +1,18 @@
 package com.ubcmmhcsoftware.user.dto;
 
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import lombok.Builder;
 import lombok.Value;
 
 import java.util.List;
 
+/**
+ * Body of GET /api/user/info. Property order is fixed so equal profiles serialize to equal
+ * bytes (and ETags).
+ */
 @Value
 @Builder
+@JsonPropertyOrder({"sub", "email", "name", "newsletterSubscription", "roles"})
 public class UserInfoResponse {
     String sub;
     String email;
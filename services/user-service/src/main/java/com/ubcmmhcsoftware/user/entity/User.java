@@ -2,8 +2,11 @@ package com.ubcmmhcsoftware.user.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
+import java.time.Instant;
 import java.util.HashSet;
+import java.util.Locale;
 import java.util.Set;
 import java.util.UUID;
 
@@ -28,13 +31,27 @@ public class User {
     @Column(unique = true)
     private String email;
 
+    /** Written by Auth Service; lookups by email go through this unique column. */
+    @Column(unique = true, insertable = false, updatable = false)
+    private String emailCanonical;
+
     private String name;
 
     private boolean newsletterSubscription = false;
 
+    /** Set by the database on insert (Auth Service owns the column). */
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    @Column(nullable = false, insertable = false, updatable = false)
+    private Instant createdAt;
+
     @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(name = "user_role",
             joinColumns = @JoinColumn(name = "user_id"),
             inverseJoinColumns = @JoinColumn(name = "role_id"))
     private Set<Role> user_roles = new HashSet<>();
+
+    /** Same normalization as Auth Service's User.canonicalEmail. */
+    public static String canonicalEmail(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
 }
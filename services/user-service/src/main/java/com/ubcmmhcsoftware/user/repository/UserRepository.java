@@ -1,13 +1,19 @@
 package com.ubcmmhcsoftware.user.repository;
 
 import com.ubcmmhcsoftware.user.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, UUID> {
@@ -15,6 +21,23 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     @Query("SELECT DISTINCT u FROM User u LEFT JOIN FETCH u.user_roles WHERE u.id = :id")
     Optional<User> findUserByIdWithRoles(UUID id);
 
-    @Query("SELECT DISTINCT u FROM User u LEFT JOIN FETCH u.user_roles WHERE u.email = :email")
-    Optional<User> findUserByEmailWithRoles(@Param("email") String email);
+    /**
+     * Takes the address as entered (e.g. a path variable) and probes the unique canonical-email index.
+     */
+    default Optional<User> findUserByEmailWithRoles(String email) {
+        return findUserByEmailCanonicalWithRoles(User.canonicalEmail(email));
+    }
+
+    @Query("SELECT DISTINCT u FROM User u LEFT JOIN FETCH u.user_roles WHERE u.emailCanonical = :emailCanonical")
+    Optional<User> findUserByEmailCanonicalWithRoles(@Param("emailCanonical") String emailCanonical);
+
+    /**
+     * Every user id, fetched in batches. Must be consumed (and closed) inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT u.id FROM User u")
+    Stream<UUID> streamAllIds();
+
+    @Query("SELECT u.id FROM User u WHERE u.createdAt >= :since")
+    List<UUID> findIdsCreatedSince(@Param("since") Instant since);
 }
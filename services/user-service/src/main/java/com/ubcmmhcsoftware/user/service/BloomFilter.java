@@ -0,0 +1,95 @@
+package com.ubcmmhcsoftware.user.service;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size Bloom filter over user ids. {@link #mightContain} never misses an id that was
+ * added and, up to the capacity it was sized for, wrongly reports about 1% of other ids.
+ * Bits are set atomically, so readers need no lock.
+ */
+final class BloomFilter {
+
+    private static final int HASHES = 7;
+    /** 9.6 bits per entry with 7 hashes gives ~1% false positives. */
+    private static final double BITS_PER_ENTRY = 9.6;
+
+    private final int capacity;
+    private final AtomicLongArray words;
+    private final long mask;
+    private final AtomicLong entries = new AtomicLong();
+
+    BloomFilter(int capacity) {
+        this.capacity = capacity;
+        long wanted = (long) Math.ceil(Math.max(capacity, 64) * BITS_PER_ENTRY);
+        long bits = Long.highestOneBit(wanted);
+        if (bits < wanted) {
+            bits <<= 1;
+        }
+        this.words = new AtomicLongArray((int) (bits >>> 6));
+        this.mask = bits - 1;
+    }
+
+    /**
+     * Sets the id's bits, unless they are all set already (re-added id or false positive),
+     * so {@link #entries} doesn't grow when the same rows are polled twice.
+     */
+    void add(UUID id) {
+        if (mightContain(id)) {
+            return;
+        }
+        long hash = hash(id);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < HASHES; i++) {
+            long bit = (h1 + (long) i * h2) & mask;
+            int word = (int) (bit >>> 6);
+            long flag = 1L << bit;
+            words.getAndUpdate(word, w -> w | flag);
+        }
+        entries.incrementAndGet();
+    }
+
+    boolean mightContain(UUID id) {
+        long hash = hash(id);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < HASHES; i++) {
+            long bit = (h1 + (long) i * h2) & mask;
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    long bits() {
+        return mask + 1;
+    }
+
+    /** Distinct ids added, less the few that were already false positives. */
+    long entries() {
+        return entries.get();
+    }
+
+    /** Expected false-positive rate at the current fill: (1 - e^(-kn/m))^k. */
+    double falsePositiveRate() {
+        return Math.pow(1 - Math.exp(-HASHES * (double) entries() / bits()), HASHES);
+    }
+
+    /** MurmurHash3's finalizer over both halves; ids are mostly random v4 UUIDs already. */
+    private static long hash(UUID id) {
+        long h = id.getMostSignificantBits() * 0x9e3779b97f4a7c15L ^ id.getLeastSignificantBits();
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,189 @@
+package com.ubcmmhcsoftware.user.service;
+
+import com.ubcmmhcsoftware.user.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Stream;
+
+/**
+ * Answers "does this user id exist?" for the internal API, using a Bloom filter over every
+ * user id. Possible matches (real users plus ~1% false positives) go to the database as before.
+ *
+ * <p>Users are created by Auth Service, so a miss may just be a user created since the last
+ * sync. A miss is therefore only a "no" once a catch-up query (ids with mmhc_user.created_at
+ * since the last sync, with an overlap for late commits) has run that started after the
+ * lookup did. Concurrent misses share one catch-up, so a burst of unknown ids costs one
+ * small index range scan rather than a primary-key lookup each. There is no background
+ * polling: the filter only changes on misses.
+ *
+ * <p>The filter is built at startup by streaming all ids, and rebuilt larger on a background
+ * thread once it holds more ids than it was sized for. Until the first build, every lookup
+ * queries.
+ *
+ * <p>Metrics: user.exists.filter.entries / .bits / .false-positive-rate (expected, from the
+ * fill) and user.exists.lookups{outcome=filtered|found|false_positive}.
+ */
+@Slf4j
+@Component
+public class UserExistenceFilter {
+
+    private static final String METRIC_PREFIX = "user.exists";
+    /** Rows are stamped at transaction start, so one can become visible after a sync that began later. */
+    private static final Duration COMMIT_OVERLAP = Duration.ofMinutes(1);
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int expectedUsers;
+    private final ExecutorService rebuilder;
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+
+    private final Counter filtered;
+    private final Counter found;
+    private final Counter falsePositive;
+
+    /** Filter plus the start of the last sync it reflects; null until the first build. */
+    private record Snapshot(BloomFilter filter, Instant syncedAt) {
+    }
+
+    private volatile Snapshot snapshot;
+
+    public UserExistenceFilter(UserRepository userRepository,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${app.user-exists-filter.expected-users:100000}") int expectedUsers,
+                               MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.expectedUsers = expectedUsers;
+        this.rebuilder = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "user-id-filter-rebuild");
+            t.setDaemon(true);
+            return t;
+        });
+
+        this.filtered = lookups(meterRegistry, "filtered");
+        this.found = lookups(meterRegistry, "found");
+        this.falsePositive = lookups(meterRegistry, "false_positive");
+        Gauge.builder(METRIC_PREFIX + ".filter.entries", this, f -> f.current(BloomFilter::entries))
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".filter.bits", this, f -> f.current(BloomFilter::bits))
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".filter.false-positive-rate", this,
+                        f -> f.current(BloomFilter::falsePositiveRate))
+                .register(meterRegistry);
+    }
+
+    private static Counter lookups(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder(METRIC_PREFIX + ".lookups").tag("outcome", outcome).register(meterRegistry);
+    }
+
+    private double current(ToDoubleFunction<BloomFilter> metric) {
+        Snapshot current = snapshot;
+        return current != null ? metric.applyAsDouble(current.filter()) : 0;
+    }
+
+    public boolean exists(UUID userId) {
+        if (!mightExist(userId)) {
+            filtered.increment();
+            return false;
+        }
+        boolean exists = userRepository.existsById(userId);
+        (exists ? found : falsePositive).increment();
+        return exists;
+    }
+
+    private boolean mightExist(UUID userId) {
+        Instant lookupStarted = Instant.now();
+        Snapshot current = snapshot;
+        if (current == null || current.filter().mightContain(userId)) {
+            return true;
+        }
+        try {
+            current = catchUp(lookupStarted);
+        } catch (RuntimeException e) {
+            log.warn("User id filter catch-up failed, checking the database: {}", e.getMessage());
+            return true;
+        }
+        return current.filter().mightContain(userId);
+    }
+
+    /**
+     * Streams every id into a new filter without holding the lock, so lookups keep using the
+     * old one meanwhile; then, under the lock, adds what was created since and swaps it in.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        Instant started = Instant.now();
+        BloomFilter next = new BloomFilter((int) Math.min(Integer.MAX_VALUE,
+                Math.max(expectedUsers, 2 * userRepository.count())));
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<UUID> ids = userRepository.streamAllIds()) {
+                ids.forEach(next::add);
+            }
+        });
+        synchronized (this) {
+            Instant swapped = Instant.now();
+            addCreatedSince(next, started);
+            snapshot = new Snapshot(next, swapped);
+        }
+        log.info("Built user id filter: {} ids, {} bits, capacity {}, expected false-positive rate {}",
+                next.entries(), next.bits(), next.capacity(), String.format("%.4f", next.falsePositiveRate()));
+    }
+
+    /**
+     * Adds ids created since the last sync, unless a sync has started since notBefore
+     * (so lookups queued behind one catch-up don't each run another).
+     */
+    private synchronized Snapshot catchUp(Instant notBefore) {
+        Snapshot current = snapshot;
+        if (!current.syncedAt().isBefore(notBefore)) {
+            return current;
+        }
+        Instant started = Instant.now();
+        addCreatedSince(current.filter(), current.syncedAt());
+        Snapshot next = new Snapshot(current.filter(), started);
+        snapshot = next;
+        if (next.filter().entries() > next.filter().capacity() && rebuildPending.compareAndSet(false, true)) {
+            rebuilder.execute(this::rebuildInBackground);
+        }
+        return next;
+    }
+
+    private void addCreatedSince(BloomFilter filter, Instant syncedAt) {
+        List<UUID> created = userRepository.findIdsCreatedSince(syncedAt.minus(COMMIT_OVERLAP));
+        created.forEach(filter::add);
+    }
+
+    private void rebuildInBackground() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.warn("User id filter rebuild failed, keeping the current one: {}", e.getMessage());
+        } finally {
+            rebuildPending.set(false);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuilder.shutdownNow();
+    }
+}
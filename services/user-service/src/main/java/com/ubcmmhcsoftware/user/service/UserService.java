@@ -1,38 +1,85 @@
 package com.ubcmmhcsoftware.user.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ubcmmhcsoftware.user.dto.SerializedJson;
 import com.ubcmmhcsoftware.user.dto.UserInfoResponse;
 import com.ubcmmhcsoftware.user.entity.User;
 import com.ubcmmhcsoftware.user.exception.UserNotFoundException;
 import com.ubcmmhcsoftware.user.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 /**
  * Service responsible for user profile operations.
  * Owns: name, newsletter_subscription, user_roles.
+ *
+ * <p>Profiles are cached per user for app.user-info-cache.ttl, already serialized, so
+ * repeat /api/user/info calls touch neither the database nor Jackson. Role changes made
+ * here evict the entry straight away, but only on this instance; other replicas, and
+ * changes made by other services (name, newsletter flag), show up once it expires.
+ * Hit/miss counts are published as cache.gets{cache="user.info"}.
  */
 @Service
-@RequiredArgsConstructor
 public class UserService {
 
+    private static final String CACHE_NAME = "user.info";
+
     private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+    private final Cache<UUID, SerializedJson> profiles;
+
+    public UserService(UserRepository userRepository,
+                       ObjectMapper objectMapper,
+                       @Value("${app.user-info-cache.ttl:PT30S}") Duration ttl,
+                       @Value("${app.user-info-cache.max-size:10000}") long maxSize,
+                       MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.objectMapper = objectMapper;
+        this.profiles = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, profiles, CACHE_NAME);
+    }
+
+    /**
+     * @throws UserNotFoundException if there is no such user (not cached)
+     */
+    public SerializedJson getUserProfileJson(UUID userId) {
+        return profiles.get(userId, id -> SerializedJson.of(objectMapper, loadUserProfile(id)));
+    }
+
+    /**
+     * Drops the cached profile so the next read on this instance sees the user's current
+     * roles. Other replicas keep theirs until app.user-info-cache.ttl expires.
+     */
+    public void evictUserProfile(UUID userId) {
+        profiles.invalidate(userId);
+    }
 
-    public UserInfoResponse getUserProfile(UUID userId) {
+    private UserInfoResponse loadUserProfile(UUID userId) {
         User user = userRepository.findUserByIdWithRoles(userId)
                 .orElseThrow(() -> new UserNotFoundException("User not found: " + userId));
 
+        // Sorted so the same roles always give the same bytes (and ETag)
         List<String> roles = user.getUser_roles().stream()
                 .map(r -> r.getName().name())
-                .collect(Collectors.toList());
+                .sorted()
+                .toList();
 
         return UserInfoResponse.builder()
                 .sub(user.getId().toString())
                 .email(user.getEmail())
-                .name(user.getName())
+                .name(user.getName() != null ? user.getName() : "")
                 .newsletterSubscription(user.isNewsletterSubscription())
                 .roles(roles)
                 .build();
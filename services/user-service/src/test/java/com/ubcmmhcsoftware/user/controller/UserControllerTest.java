@@ -0,0 +1,124 @@
+package com.ubcmmhcsoftware.user.controller;
+
+import com.ubcmmhcsoftware.user.entity.Role;
+import com.ubcmmhcsoftware.user.entity.RoleEnum;
+import com.ubcmmhcsoftware.user.entity.User;
+import com.ubcmmhcsoftware.user.repository.RoleRepository;
+import com.ubcmmhcsoftware.user.repository.UserRepository;
+import com.ubcmmhcsoftware.user.service.RoleRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("local")
+class UserControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private RoleRegistry roleRegistry;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User member;
+    private User admin;
+
+    @BeforeEach
+    void setUp() {
+        for (RoleEnum name : RoleEnum.values()) {
+            role(name);
+        }
+        member = user(RoleEnum.ROLE_USER);
+        admin = user(RoleEnum.ROLE_ADMIN);
+        roleRegistry.invalidate();
+    }
+
+    @Test
+    void unchangedProfileRevalidatesTo304() throws Exception {
+        String etag = mockMvc.perform(info(member))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+                .andExpect(jsonPath("$.sub").value(member.getId().toString()))
+                .andExpect(jsonPath("$.roles[0]").value("ROLE_USER"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(info(member).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    void roleChangeServesANewEtag() throws Exception {
+        String before = mockMvc.perform(info(member))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(post("/api/admin/users/{email}/role", member.getEmail())
+                        .header("X-User-Id", admin.getId().toString())
+                        .header("X-User-Email", admin.getEmail())
+                        .header("X-User-Roles", "ROLE_ADMIN")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"role\":\"ROLE_BLOG_EDITOR\"}"))
+                .andExpect(status().isOk());
+
+        String after = mockMvc.perform(info(member).header(HttpHeaders.IF_NONE_MATCH, before))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.roles[0]").value("ROLE_BLOG_EDITOR"))
+                .andExpect(jsonPath("$.roles[1]").value("ROLE_USER"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(after).isNotBlank().isNotEqualTo(before);
+    }
+
+    private static MockHttpServletRequestBuilder info(User user) {
+        return get("/api/user/info")
+                .header("X-User-Id", user.getId().toString())
+                .header("X-User-Email", user.getEmail())
+                .header("X-User-Roles", "ROLE_USER");
+    }
+
+    /** Saves a user; email_canonical is Auth Service's column, so it is filled in directly. */
+    private User user(RoleEnum roleName) {
+        User user = new User();
+        user.setEmail(UUID.randomUUID() + "@example.org");
+        user.setUser_roles(new HashSet<>(Set.of(role(roleName))));
+        user = userRepository.save(user);
+        jdbcTemplate.update("UPDATE mmhc_user SET email_canonical = ? WHERE id = ?", user.getEmail(), user.getId());
+        return user;
+    }
+
+    private Role role(RoleEnum name) {
+        return roleRepository.findByName(name).orElseGet(() -> {
+            Role role = new Role();
+            role.setName(name);
+            return roleRepository.save(role);
+        });
+    }
+}
@@ -0,0 +1,56 @@
+package com.ubcmmhcsoftware.user.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloomFilterTest {
+
+    @Test
+    void neverMissesAnAddedId() {
+        BloomFilter filter = new BloomFilter(10_000);
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            UUID id = UUID.randomUUID();
+            ids.add(id);
+            filter.add(id);
+        }
+        assertThat(ids).allMatch(filter::mightContain);
+    }
+
+    @Test
+    void falsePositiveRateStaysNearOnePercentAtCapacity() {
+        BloomFilter filter = new BloomFilter(10_000);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add(UUID.randomUUID());
+        }
+        int hits = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain(UUID.randomUUID())) {
+                hits++;
+            }
+        }
+        assertThat(hits / 100_000.0).isLessThan(0.02);
+        assertThat(filter.falsePositiveRate()).isBetween(0.0, 0.02);
+    }
+
+    @Test
+    void addingTheSameIdAgainDoesNotCountIt() {
+        BloomFilter filter = new BloomFilter(100);
+        UUID id = UUID.randomUUID();
+        filter.add(id);
+        filter.add(id);
+        assertThat(filter.entries()).isEqualTo(1);
+    }
+
+    @Test
+    void sizesToAPowerOfTwoOfAtLeastTheRequestedBits() {
+        BloomFilter filter = new BloomFilter(1000);
+        assertThat(filter.bits()).isGreaterThanOrEqualTo(9600);
+        assertThat(Long.bitCount(filter.bits())).isEqualTo(1);
+    }
+}
@@ -0,0 +1,164 @@
+package com.ubcmmhcsoftware.user.service;
+
+import com.ubcmmhcsoftware.user.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class UserExistenceFilterTest {
+
+    private final UUID existing = UUID.randomUUID();
+
+    private UserRepository userRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private UserExistenceFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        when(userRepository.count()).thenReturn(1L);
+        when(userRepository.streamAllIds()).thenAnswer(inv -> Stream.of(existing));
+        when(userRepository.existsById(existing)).thenReturn(true);
+        when(userRepository.findIdsCreatedSince(any())).thenReturn(List.of());
+        filter = new UserExistenceFilter(userRepository, mock(PlatformTransactionManager.class), 1000, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        filter.shutdown();
+    }
+
+    @Test
+    void queriesTheDatabaseUntilTheFirstBuild() {
+        UUID unknown = UUID.randomUUID();
+
+        assertThat(filter.exists(unknown)).isFalse();
+
+        verify(userRepository).existsById(unknown);
+        verify(userRepository, never()).findIdsCreatedSince(any());
+    }
+
+    @Test
+    void knownIdIsCheckedAgainstTheDatabase() {
+        filter.rebuild();
+
+        assertThat(filter.exists(existing)).isTrue();
+
+        verify(userRepository).existsById(existing);
+        assertThat(lookups("found")).isEqualTo(1);
+    }
+
+    @Test
+    void unknownIdIsAnsweredByTheCatchUpWithoutAPrimaryKeyLookup() {
+        filter.rebuild();
+        UUID unknown = UUID.randomUUID();
+
+        assertThat(filter.exists(unknown)).isFalse();
+
+        verify(userRepository, never()).existsById(unknown);
+        assertThat(lookups("filtered")).isEqualTo(1);
+    }
+
+    @Test
+    void userCreatedAfterTheBuildIsFoundOnItsFirstLookup() {
+        filter.rebuild();
+        UUID created = UUID.randomUUID();
+        when(userRepository.findIdsCreatedSince(any())).thenReturn(List.of(created));
+        when(userRepository.existsById(created)).thenReturn(true);
+
+        assertThat(filter.exists(created)).isTrue();
+    }
+
+    @Test
+    void catchUpOverlapsTheLastSyncForLateCommits() {
+        filter.rebuild();
+        Instant beforeLookup = Instant.now();
+
+        filter.exists(UUID.randomUUID());
+
+        verify(userRepository, atLeastOnce()).findIdsCreatedSince(argThat(since -> since.isBefore(beforeLookup.minusSeconds(59))));
+    }
+
+    @Test
+    void failedCatchUpFallsBackToTheDatabase() {
+        filter.rebuild();
+        UUID unknown = UUID.randomUUID();
+        when(userRepository.findIdsCreatedSince(any())).thenThrow(new IllegalStateException("db down"));
+
+        assertThat(filter.exists(unknown)).isFalse();
+
+        verify(userRepository).existsById(unknown);
+    }
+
+    @Test
+    void concurrentMissesShareOneCatchUp() throws Exception {
+        filter.rebuild();
+        clearInvocations(userRepository);
+        CountDownLatch release = new CountDownLatch(1);
+        when(userRepository.findIdsCreatedSince(any())).thenAnswer(inv -> {
+            release.await();
+            return List.of();
+        });
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = IntStream.range(0, 8)
+                    .mapToObj(i -> pool.submit(() -> filter.exists(UUID.randomUUID())))
+                    .toList();
+            Thread.sleep(200);
+            release.countDown();
+            for (Future<Boolean> result : results) {
+                assertThat(result.get()).isFalse();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        // The first miss catches up; the rest started before it and reuse it
+        verify(userRepository, atMost(2)).findIdsCreatedSince(any());
+    }
+
+    @Test
+    void rebuildsLargerOffTheRequestThreadWhenFull() {
+        filter.rebuild();
+        List<UUID> burst = IntStream.range(0, 1500).mapToObj(i -> UUID.randomUUID()).toList();
+        when(userRepository.findIdsCreatedSince(any())).thenReturn(burst).thenReturn(List.of());
+        when(userRepository.count()).thenReturn(1501L);
+        when(userRepository.streamAllIds()).thenAnswer(inv -> Stream.concat(Stream.of(existing), burst.stream()));
+
+        filter.exists(UUID.randomUUID());
+
+        verify(userRepository, timeout(5000).times(2)).streamAllIds();
+        await(() -> meterRegistry.get("user.exists.filter.bits").gauge().value() > 16384);
+    }
+
+    private double lookups(String outcome) {
+        return meterRegistry.get("user.exists.lookups").tag("outcome", outcome).counter().count();
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).isLessThan(deadline);
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.ubcmmhcsoftware.user.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ubcmmhcsoftware.user.controller.AdminUserController;
+import com.ubcmmhcsoftware.user.dto.SerializedJson;
+import com.ubcmmhcsoftware.user.entity.Role;
+import com.ubcmmhcsoftware.user.entity.RoleEnum;
+import com.ubcmmhcsoftware.user.entity.User;
+import com.ubcmmhcsoftware.user.exception.UserNotFoundException;
+import com.ubcmmhcsoftware.user.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class UserServiceTest {
+
+    private static final String EMAIL = "member@example.org";
+    private static final String ADMIN_EMAIL = "admin@example.org";
+
+    private final UUID userId = UUID.randomUUID();
+
+    private UserRepository userRepository;
+    private RoleRegistry roleRegistry;
+    private SimpleMeterRegistry meterRegistry;
+    private UserService userService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        roleRegistry = mock(RoleRegistry.class);
+        meterRegistry = new SimpleMeterRegistry();
+        userService = new UserService(userRepository, new ObjectMapper(), Duration.ofMinutes(5), 100, meterRegistry);
+
+        user = new User();
+        user.setId(userId);
+        user.setEmail(EMAIL);
+        user.setUser_roles(new HashSet<>(Set.of(role(RoleEnum.ROLE_USER))));
+        when(userRepository.findUserByIdWithRoles(userId)).thenReturn(Optional.of(user));
+        when(userRepository.findUserByEmailWithRoles(EMAIL)).thenReturn(Optional.of(user));
+    }
+
+    @Test
+    void repeatReadsAreServedFromTheCache() {
+        SerializedJson first = userService.getUserProfileJson(userId);
+        SerializedJson second = userService.getUserProfileJson(userId);
+
+        assertThat(second).isSameAs(first);
+        assertThat(body(first)).contains("\"email\":\"member@example.org\"", "\"roles\":[\"ROLE_USER\"]");
+        verify(userRepository, times(1)).findUserByIdWithRoles(userId);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "user.info").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void evictionReloadsTheProfile() {
+        SerializedJson before = userService.getUserProfileJson(userId);
+        user.getUser_roles().add(role(RoleEnum.ROLE_ADMIN));
+
+        userService.evictUserProfile(userId);
+        SerializedJson after = userService.getUserProfileJson(userId);
+
+        assertThat(body(after)).contains("\"roles\":[\"ROLE_ADMIN\",\"ROLE_USER\"]");
+        assertThat(after.etag()).isNotEqualTo(before.etag());
+        verify(userRepository, times(2)).findUserByIdWithRoles(userId);
+    }
+
+    @Test
+    void unknownUserIsNotCached() {
+        UUID unknown = UUID.randomUUID();
+
+        assertThatThrownBy(() -> userService.getUserProfileJson(unknown)).isInstanceOf(UserNotFoundException.class);
+        assertThatThrownBy(() -> userService.getUserProfileJson(unknown)).isInstanceOf(UserNotFoundException.class);
+        verify(userRepository, times(2)).findUserByIdWithRoles(unknown);
+
+        User created = new User();
+        created.setId(unknown);
+        created.setEmail("new@example.org");
+        when(userRepository.findUserByIdWithRoles(unknown)).thenReturn(Optional.of(created));
+        assertThat(body(userService.getUserProfileJson(unknown))).contains("new@example.org");
+    }
+
+    @Test
+    void assigningARoleEvictsTheProfile() {
+        AdminUserController controller = adminController();
+        userService.getUserProfileJson(userId);
+
+        controller.assignRole(EMAIL, Map.of("role", "ROLE_BLOG_EDITOR"), admin());
+
+        assertThat(body(userService.getUserProfileJson(userId))).contains("ROLE_BLOG_EDITOR");
+        verify(userRepository, times(2)).findUserByIdWithRoles(userId);
+    }
+
+    @Test
+    void removingARoleEvictsTheProfile() {
+        user.getUser_roles().add(role(RoleEnum.ROLE_BLOG_EDITOR));
+        AdminUserController controller = adminController();
+        assertThat(body(userService.getUserProfileJson(userId))).contains("ROLE_BLOG_EDITOR");
+
+        controller.removeRole(EMAIL, Map.of("role", "ROLE_BLOG_EDITOR"), admin());
+
+        assertThat(body(userService.getUserProfileJson(userId))).doesNotContain("ROLE_BLOG_EDITOR");
+        verify(userRepository, times(2)).findUserByIdWithRoles(userId);
+    }
+
+    private AdminUserController adminController() {
+        User admin = new User();
+        admin.setId(UUID.randomUUID());
+        admin.setEmail(ADMIN_EMAIL);
+        admin.setUser_roles(new HashSet<>(Set.of(role(RoleEnum.ROLE_ADMIN))));
+        when(userRepository.findUserByEmailWithRoles(ADMIN_EMAIL)).thenReturn(Optional.of(admin));
+        when(roleRegistry.reference(any())).thenAnswer(inv -> Optional.of(role(inv.getArgument(0))));
+        return new AdminUserController(userRepository, roleRegistry, userService);
+    }
+
+    private static UserDetails admin() {
+        return org.springframework.security.core.userdetails.User.withUsername(ADMIN_EMAIL)
+                .password("")
+                .authorities(List.of())
+                .build();
+    }
+
+    private static Role role(RoleEnum name) {
+        Role role = new Role();
+        role.setName(name);
+        return role;
+    }
+
+    private static String body(SerializedJson json) {
+        return new String(json.body(), StandardCharsets.UTF_8);
+    }
+}